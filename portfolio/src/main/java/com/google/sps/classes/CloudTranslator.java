@@ -0,0 +1,53 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.cloud.translate.Translate;
+import com.google.cloud.translate.Translate.TranslateOption;
+import com.google.cloud.translate.TranslateOptions;
+import com.google.cloud.translate.Translation;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Translator backed by the Cloud Translation API. Sends many texts per request instead of one. */
+public final class CloudTranslator implements Translator {
+    /* The most texts the API accepts in one request. */
+    static final int MAX_BATCH_SIZE = 128;
+
+    private final Translate translate;
+
+    public CloudTranslator(Translate translate) {
+        this.translate = translate;
+    }
+
+    /* Returns a translator using the default credentials of the app. */
+    public static CloudTranslator createDefault() {
+        return new CloudTranslator(TranslateOptions.getDefaultInstance().getService());
+    }
+
+    @Override
+    public List<String> translate(List<String> texts, String targetLanguage) {
+        List<String> results = new ArrayList<>(texts.size());
+        for (int start = 0; start < texts.size(); start += MAX_BATCH_SIZE) {
+            int end = Math.min(start + MAX_BATCH_SIZE, texts.size());
+            List<Translation> translations = translate.translate(
+                texts.subList(start, end), TranslateOption.targetLanguage(targetLanguage));
+            for (Translation translation : translations) {
+                results.add(translation.getTranslatedText());
+            }
+        }
+        return results;
+    }
+}
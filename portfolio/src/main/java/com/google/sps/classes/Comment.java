@@ -19,30 +19,35 @@ public class Comment {
     /*
     long id:            unique id for the Comment in Datastore
     String text:        text in Comment
-    String timestamp:   timestamp for when the Comment was sent (Month Date, Year H:MM:SS AM/PM)
+    long timestamp:     when the Comment was sent, in milliseconds since the epoch
+    String author:      email of the user who sent the Comment, or "guest"
     */
     private long id;
     private String text;
-    private String timestamp;
-    private String email;
+    private long timestamp;
+    private String author;
 
-    public Comment(long id, String text, String timestamp, String email) {
+    public Comment(long id, String text, long timestamp, String author) {
         this.id = id;
         this.text = text;
         this.timestamp = timestamp;
-        this.email = email;
+        this.author = author;
     }
 
+    /* Getter method for id. */
+    public long getId() {
+        return this.id;
+    }
     /* Getter method for text. */
     public String getText() {
         return this.text;
     }
     /* Getter method for timestamp. */
-    public String getTimestamp() {
+    public long getTimestamp() {
         return this.timestamp;
     }
-    /* Getter method for email. */
-    public String getEmail() {
-        return this.email;
+    /* Getter method for author. */
+    public String getAuthor() {
+        return this.author;
     }
 }
@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.Entity;
+import java.text.DateFormat;
+import java.text.ParseException;
+
+/* Reads and upgrades the properties of "Comment" entities.
+
+   Comments used to be saved with a locale-formatted "timestamp" string and an "email" property.
+   They are now saved with:
+     long timestamp:     milliseconds since the epoch, so sorting on it is chronological
+     String author:      email of the user who sent the comment, or "guest"
+     String language:    language code the comment is written in, or UNDETERMINED_LANGUAGE
+   The getters below also understand the old format. Until a comment is migrated (POST
+   /migrate-comments), its string timestamp sorts after every number, so the feed filters it out
+   rather than list it out of order. Migration always leaves a numeric timestamp behind, so no
+   comment stays hidden. */
+public final class CommentEntities {
+    public static final String KIND = "Comment";
+
+    /* The language code for text in an unknown language. */
+    public static final String UNDETERMINED_LANGUAGE = "und";
+
+    /* Holds the old timestamp of a comment whose timestamp couldn't be parsed when it was
+       migrated, so it can still be fixed by hand. */
+    public static final String LEGACY_TIMESTAMP = "legacyTimestamp";
+
+    private CommentEntities() {}
+
+    /* Returns when the comment was sent in milliseconds since the epoch, or 0 if that isn't known
+       until the comment is migrated. */
+    public static long getTimestampMillis(Entity comment) {
+        Object timestamp = comment.getProperty("timestamp");
+        return timestamp instanceof Long ? (Long) timestamp : 0;
+    }
+
+    public static String getAuthor(Entity comment) {
+        Object author = comment.getProperty("author");
+        return author != null ? (String) author : (String) comment.getProperty("email");
+    }
+
+    /* Returns the language code of the comment, or UNDETERMINED_LANGUAGE. */
+    public static String getLanguage(Entity comment) {
+        Object language = comment.getProperty("language");
+        return language != null ? (String) language : UNDETERMINED_LANGUAGE;
+    }
+
+    /* Converts a comment saved in the old format to the new one. legacyFormat must be the
+       DateFormat the old timestamps were written with. A timestamp that can't be parsed, or is
+       missing, becomes 0 so that the comment still shows up in the feed (as the oldest one); the
+       original value is logged and kept in LEGACY_TIMESTAMP. Returns false if nothing changed. */
+    public static boolean migrate(Entity comment, DateFormat legacyFormat) {
+        boolean changed = false;
+
+        Object timestamp = comment.getProperty("timestamp");
+        if (!(timestamp instanceof Long)) {
+            Long millis = parseLegacyTimestamp(timestamp, legacyFormat);
+            if (millis == null) {
+                System.err.println("Cannot parse timestamp of " + comment.getKey() + ": "
+                    + timestamp + "; keeping it in " + LEGACY_TIMESTAMP + " and using 0.");
+                if (timestamp != null) {
+                    comment.setUnindexedProperty(LEGACY_TIMESTAMP, timestamp);
+                }
+                millis = 0L;
+            }
+            comment.setProperty("timestamp", millis);
+            changed = true;
+        }
+
+        if (!comment.hasProperty("author")) {
+            Object email = comment.getProperty("email");
+            comment.setProperty("author", email != null ? email : "guest");
+            comment.removeProperty("email");
+            changed = true;
+        }
+
+        if (!comment.hasProperty("language")) {
+            comment.setProperty("language", UNDETERMINED_LANGUAGE);
+            changed = true;
+        }
+        return changed;
+    }
+
+    /* Returns the milliseconds in an old-format timestamp, or null if it isn't one. */
+    private static Long parseLegacyTimestamp(Object timestamp, DateFormat legacyFormat) {
+        if (!(timestamp instanceof String)) {
+            return null;
+        }
+        try {
+            return legacyFormat.parse((String) timestamp).getTime();
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import java.util.List;
+
+/* One page of the comment feed, serialized as the response of the /data servlet. */
+public class CommentPage {
+    /*
+    List<Comment> comments:     comments on this page, newest first
+    String cursor:              opaque Datastore cursor for the next page, null on the last page
+    */
+    private List<Comment> comments;
+    private String cursor;
+
+    public CommentPage(List<Comment> comments, String cursor) {
+        this.comments = comments;
+        this.cursor = cursor;
+    }
+
+    /* Getter method for comments. */
+    public List<Comment> getComments() {
+        return this.comments;
+    }
+    /* Getter method for cursor. */
+    public String getCursor() {
+        return this.cursor;
+    }
+}
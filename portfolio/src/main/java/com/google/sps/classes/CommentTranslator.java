@@ -0,0 +1,213 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Text;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/* Translates comments, doing as little remote work as possible. Comments already written in the
+   target language are returned as they are; any other translation is looked up in three places in
+   turn:
+     1. the in-memory TranslationCache,
+     2. a CommentTranslation entity stored as a child of the comment, fetched in one batch get,
+     3. the Translator, called for the remaining comments in a few batches that run in parallel.
+   New translations are saved to both the cache and Datastore, so each comment is only sent to the
+   Translator once per language. Batches that fail or miss the deadline fall back to the original
+   text and are tried again on the next request, as do all of them when the shared executor is
+   too busy to take them. */
+public final class CommentTranslator {
+    /* Kind of the entities holding saved translations. The key name is the language code. */
+    public static final String TRANSLATION_KIND = "CommentTranslation";
+
+    /* The most Translator calls in flight for one request. */
+    static final int MAX_PARALLEL_CALLS = 8;
+
+    /* Threads and queued batches of the executor made by newExecutor(), shared by every request. */
+    static final int MAX_THREADS = 16;
+    static final int MAX_QUEUED_BATCHES = 64;
+
+    private final DatastoreService datastore;
+    private final Translator translator;
+    private final TranslationCache cache;
+    private final ExecutorService executor;
+    private final long deadlineMillis;
+
+    /* Translator calls run on executor, which is shared rather than made per request, and are
+       given up on if they take longer than deadlineMillis in total. */
+    public CommentTranslator(DatastoreService datastore, Translator translator,
+            TranslationCache cache, ExecutorService executor, long deadlineMillis) {
+        this.datastore = datastore;
+        this.translator = translator;
+        this.cache = cache;
+        this.executor = executor;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /* Returns a bounded executor for Translator calls, meant to be shared by every request and
+       shut down by its owner. Its threads are plain daemon threads that outlive requests, which
+       the Java 8 runtime allows as long as they don't call App Engine APIs; the Translator only
+       talks to the Cloud Translation API. Batches beyond MAX_QUEUED_BATCHES are rejected. */
+    public static ExecutorService newExecutor() {
+        ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_BATCHES),
+            runnable -> {
+                Thread thread = defaultFactory.newThread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        // Idle instances don't keep threads around.
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /* Returns the "text" of each comment entity translated into language, in the same order as
+       comments (so in timestamp order for a page of the feed). */
+    public List<String> translate(List<Entity> comments, String language) {
+        List<String> results = new ArrayList<>(comments.size());
+        List<Integer> misses = new ArrayList<>();
+        for (int i = 0; i < comments.size(); i++) {
+            Entity comment = comments.get(i);
+            // Nothing to translate if the comment is already in the right language.
+            String cached = language.equals(CommentEntities.getLanguage(comment))
+                ? (String) comment.getProperty("text")
+                : cache.get(comment.getKey().getId(), language);
+            results.add(cached);
+            if (cached == null) {
+                misses.add(i);
+            }
+        }
+        if (misses.isEmpty()) {
+            return results;
+        }
+
+        // Translations saved by earlier requests, possibly on other servers.
+        List<Key> translationKeys = new ArrayList<>(misses.size());
+        for (int i : misses) {
+            translationKeys.add(translationKey(comments.get(i).getKey(), language));
+        }
+        Map<Key, Entity> saved = datastore.get(translationKeys);
+
+        List<Integer> untranslated = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        for (int miss = 0; miss < misses.size(); miss++) {
+            int i = misses.get(miss);
+            Entity translation = saved.get(translationKeys.get(miss));
+            if (translation != null) {
+                String text = ((Text) translation.getProperty("text")).getValue();
+                results.set(i, text);
+                cache.put(comments.get(i).getKey().getId(), language, text);
+            } else {
+                untranslated.add(i);
+                texts.add((String) comments.get(i).getProperty("text"));
+            }
+        }
+        if (untranslated.isEmpty()) {
+            return results;
+        }
+
+        List<String> translations = translateInParallel(texts, language);
+        List<Entity> newEntities = new ArrayList<>(untranslated.size());
+        for (int j = 0; j < untranslated.size(); j++) {
+            int i = untranslated.get(j);
+            Key commentKey = comments.get(i).getKey();
+            String text = translations.get(j);
+            if (text == null) {
+                // Not translated in time; show the original and try again next time.
+                results.set(i, texts.get(j));
+                continue;
+            }
+            results.set(i, text);
+            cache.put(commentKey.getId(), language, text);
+
+            // A child entity rather than a property on the comment, so saving it can't bring back a
+            // comment that was deleted in the meantime.
+            Entity translation = new Entity(translationKey(commentKey, language));
+            translation.setUnindexedProperty("text", new Text(text));
+            newEntities.add(translation);
+        }
+        if (!newEntities.isEmpty()) {
+            datastore.put(newEntities);
+        }
+        return results;
+    }
+
+    /* Splits texts into up to MAX_PARALLEL_CALLS batches and translates them at the same time, so
+       the wait is about as long as the slowest batch instead of the sum of all of them. Returns
+       null in place of each text whose batch failed, didn't finish before the deadline or was
+       rejected by the executor. */
+    private List<String> translateInParallel(List<String> texts, String language) {
+        int evenSplit = (texts.size() + MAX_PARALLEL_CALLS - 1) / MAX_PARALLEL_CALLS;
+        int batchSize = Math.min(evenSplit, CloudTranslator.MAX_BATCH_SIZE);
+        List<Callable<List<String>>> batches = new ArrayList<>();
+        for (int start = 0; start < texts.size(); start += batchSize) {
+            List<String> batch = texts.subList(start, Math.min(start + batchSize, texts.size()));
+            batches.add(() -> translator.translate(batch, language));
+        }
+
+        List<String> results = new ArrayList<>(texts.size());
+        try {
+            // Even a single batch goes through the executor, so it gets the deadline too.
+            // Cancels whatever hasn't finished by the deadline, which frees its thread.
+            List<Future<List<String>>> futures =
+                executor.invokeAll(batches, deadlineMillis, TimeUnit.MILLISECONDS);
+            for (int b = 0; b < futures.size(); b++) {
+                int size = Math.min(batchSize, texts.size() - b * batchSize);
+                try {
+                    results.addAll(futures.get(b).get());
+                } catch (CancellationException | ExecutionException e) {
+                    System.err.println("Translation failed or timed out; showing original: " + e);
+                    addNulls(results, size);
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            // invokeAll has already cancelled the batches it did submit.
+            System.err.println("Too many translations in progress; showing original text.");
+            addNulls(results, texts.size() - results.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addNulls(results, texts.size() - results.size());
+        }
+        return results;
+    }
+
+    private static void addNulls(List<String> list, int count) {
+        for (int i = 0; i < count; i++) {
+            list.add(null);
+        }
+    }
+
+    private static Key translationKey(Key commentKey, String language) {
+        return KeyFactory.createKey(commentKey, TRANSLATION_KIND, language);
+    }
+}
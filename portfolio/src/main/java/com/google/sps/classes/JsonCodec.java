@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/* JSON codec for the portfolio servlets, with a hand-written adapter for Comment. */
+public final class JsonCodec {
+    /* Reads and writes a Comment as {"id": ..., "text": ..., "timestamp": ..., "author": ...}, the
+       same JSON that reflection-based Gson produces. */
+    public static final TypeAdapter<Comment> COMMENT = new TypeAdapter<Comment>() {
+        @Override
+        public void write(JsonWriter out, Comment comment) throws IOException {
+            if (comment == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(comment.getId());
+            out.name("text").value(comment.getText());
+            out.name("timestamp").value(comment.getTimestamp());
+            out.name("author").value(comment.getAuthor());
+            out.endObject();
+        }
+
+        @Override
+        public Comment read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            long id = 0;
+            String text = null;
+            long timestamp = 0;
+            String author = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id":
+                        id = in.nextLong();
+                        break;
+                    case "text":
+                        text = in.nextString();
+                        break;
+                    case "timestamp":
+                        timestamp = in.nextLong();
+                        break;
+                    case "author":
+                        author = in.nextString();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Comment(id, text, timestamp, author);
+        }
+    };
+
+    /* Gson instance that uses the adapters above. */
+    public static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapter(Comment.class, COMMENT)
+        .create();
+
+    private JsonCodec() {}
+}
@@ -0,0 +1,176 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.Entity;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import javax.servlet.ServletContext;
+
+/* Read-through cache of the newest page of comments for each page size, shared by every request
+   (and every servlet) in the app. Most requests are for the newest page, so this turns most of
+   them into a map lookup. When several requests miss at once, only one of them reads Datastore and
+   the rest wait for its result.
+
+   invalidate() drops everything when this server adds or deletes comments. Changes made by other
+   servers show up once an entry is older than maxAgeMillis. */
+public final class RecentCommentsCache {
+    private static final String ATTRIBUTE = RecentCommentsCache.class.getName();
+
+    /* How long another server's changes can go unseen. */
+    private static final long MAX_AGE_MILLIS = 5000;
+
+    /* An immutable page of comment entities, plus the cursor for the page after it. The entities
+       are shared between requests, so they must not be modified. */
+    public static final class Page {
+        private final List<Entity> entities;
+        private final String cursor;
+
+        public Page(List<Entity> entities, String cursor) {
+            this.entities = Collections.unmodifiableList(entities);
+            this.cursor = cursor;
+        }
+
+        /* Getter method for entities. */
+        public List<Entity> getEntities() {
+            return this.entities;
+        }
+        /* Getter method for cursor; null if this is the last page. */
+        public String getCursor() {
+            return this.cursor;
+        }
+    }
+
+    /* A page that is loaded, or being loaded by one of the requests. */
+    private static final class Entry {
+        final FutureTask<Page> page;
+        final long generation;
+        final long loadedAtMillis;
+
+        Entry(FutureTask<Page> page, long generation, long loadedAtMillis) {
+            this.page = page;
+            this.generation = generation;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+
+    private final ConcurrentMap<Integer, Entry> pages = new ConcurrentHashMap<>();
+    // Bumped by invalidate(), so a page that was being read at the time is never served afterwards.
+    private final AtomicLong generation = new AtomicLong();
+    private final long maxAgeMillis;
+
+    public RecentCommentsCache(long maxAgeMillis) {
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /* Returns the cache shared by everything in the servlet context, creating it if needed. */
+    public static RecentCommentsCache get(ServletContext context) {
+        synchronized (context) {
+            RecentCommentsCache cache = (RecentCommentsCache) context.getAttribute(ATTRIBUTE);
+            if (cache == null) {
+                cache = new RecentCommentsCache(MAX_AGE_MILLIS);
+                context.setAttribute(ATTRIBUTE, cache);
+            }
+            return cache;
+        }
+    }
+
+    /* Returns the newest page of pageSize comments, calling loader to read it on a miss. Exceptions
+       thrown by loader are passed on to every request waiting for that page. */
+    public Page get(int pageSize, IntFunction<Page> loader) {
+        while (true) {
+            long currentGeneration = generation.get();
+            long now = System.currentTimeMillis();
+            Entry entry = pages.get(pageSize);
+            if (entry != null && entry.generation > currentGeneration) {
+                // Invalidated since this request looked. The entry is newer, not stale, so look
+                // again instead of dropping it.
+                continue;
+            }
+            if (entry != null && !isFresh(entry, currentGeneration, now)) {
+                pages.remove(pageSize, entry);
+                entry = null;
+            }
+
+            boolean loadHere = false;
+            if (entry == null) {
+                Entry loading = new Entry(
+                    new FutureTask<>(() -> loader.apply(pageSize)), currentGeneration, now);
+                entry = pages.putIfAbsent(pageSize, loading);
+                if (entry == null) {
+                    if (generation.get() != currentGeneration) {
+                        // Invalidated since this request looked; the page of that generation may
+                        // already have been loaded, so don't load another.
+                        pages.remove(pageSize, loading);
+                        continue;
+                    }
+                    entry = loading;
+                    loadHere = true;
+                } else if (!isFresh(entry, currentGeneration, now)) {
+                    // Lost a race with an invalidation or another expired entry; look again.
+                    continue;
+                }
+            }
+
+            if (loadHere) {
+                entry.page.run();
+            }
+            try {
+                return entry.page.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while reading comments", e);
+            } catch (ExecutionException e) {
+                // Let the next request try again rather than caching the failure.
+                pages.remove(pageSize, entry);
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /* Forgets every cached page, after comments are added or deleted. */
+    public void invalidate() {
+        long current = generation.incrementAndGet();
+        // Not clear(): a request may already have loaded a page for the new generation.
+        for (Map.Entry<Integer, Entry> page : pages.entrySet()) {
+            if (page.getValue().generation < current) {
+                pages.remove(page.getKey(), page.getValue());
+            }
+        }
+    }
+
+    /* How many times the cache has been invalidated; for tests. */
+    long generation() {
+        return generation.get();
+    }
+
+    private boolean isFresh(Entry entry, long currentGeneration, long now) {
+        return entry.generation == currentGeneration && now - entry.loadedAtMillis < maxAgeMillis;
+    }
+}
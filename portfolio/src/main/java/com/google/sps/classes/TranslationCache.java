@@ -0,0 +1,48 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* Bounded cache of comment translations, keyed by comment id and target language. Comments are
+   never edited, so an entry never goes stale; once the cache is full the least recently used entry
+   is dropped. */
+public final class TranslationCache {
+    private final Map<String, String> entries;
+
+    public TranslationCache(int maxEntries) {
+        // An access-ordered LinkedHashMap keeps the least recently used entry first.
+        this.entries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /* Returns the cached translation, or null if there isn't one. */
+    public synchronized String get(long commentId, String language) {
+        return entries.get(key(commentId, language));
+    }
+
+    public synchronized void put(long commentId, String language, String translation) {
+        entries.put(key(commentId, language), translation);
+    }
+
+    private static String key(long commentId, String language) {
+        return commentId + ":" + language;
+    }
+}
@@ -0,0 +1,24 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import java.util.List;
+
+/* Translates text. Kept behind an interface so a local fake can stand in for the Cloud Translation
+   API in tests and offline runs. */
+public interface Translator {
+    /* Translates each of texts into targetLanguage and returns the results in the same order. */
+    List<String> translate(List<String> texts, String targetLanguage);
+}
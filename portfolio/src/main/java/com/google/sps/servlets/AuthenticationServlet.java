@@ -22,7 +22,7 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.google.gson.Gson;
+import com.google.sps.classes.JsonCodec;
 import java.util.*;
 
 /** Servlet for User Authentication. **/
@@ -51,10 +51,8 @@ public class AuthenticationServlet extends HttpServlet {
         }
     }
     
-    // Convert List to JSON using Gson library.
+    // Convert List to JSON using the shared Gson instance.
     private String convertToJson(List<String> response) {
-        Gson gson = new Gson();
-        String json = gson.toJson(response);
-        return json;
+        return JsonCodec.GSON.toJson(response);
     }
 }
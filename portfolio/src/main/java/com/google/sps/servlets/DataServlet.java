@@ -14,11 +14,16 @@
 
 package com.google.sps.servlets;
 
+import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
+import com.google.appengine.api.datastore.Query.Filter;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.QueryResultList;
 import com.google.appengine.api.datastore.Query.SortDirection;
 import com.google.appengine.api.datastore.FetchOptions;
 
@@ -28,76 +33,161 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.google.cloud.translate.Translate;
-import com.google.cloud.translate.TranslateOptions;
-import com.google.cloud.translate.Translation;
 import com.google.appengine.api.users.UserService;
 import com.google.appengine.api.users.UserServiceFactory;
+import com.google.sps.classes.CloudTranslator;
 import com.google.sps.classes.Comment;
-import com.google.gson.Gson;
+import com.google.sps.classes.CommentEntities;
+import com.google.sps.classes.CommentPage;
+import com.google.sps.classes.CommentTranslator;
+import com.google.sps.classes.JsonCodec;
+import com.google.sps.classes.RecentCommentsCache;
+import com.google.sps.classes.TranslationCache;
+import com.google.sps.classes.Translator;
 import java.util.*;
-import java.text.*;
+import java.util.concurrent.ExecutorService;
 
 /** Servlet that returns user comments. */
 @WebServlet("/data")
 public class DataServlet extends HttpServlet {
-  DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-  PreparedQuery loadedComments;
-  Translate translate = TranslateOptions.getDefaultInstance().getService();
-  
+  // Most translations the cache holds; a few hundred comments in a handful of languages.
+  private static final int TRANSLATION_CACHE_SIZE = 10000;
+
+  // Comments per page when the request doesn't ask for a number, and the most it can ask for.
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 100;
+
+  // How long a request waits for translations before showing the original text instead.
+  private static final long TRANSLATION_DEADLINE_MILLIS = 2000;
+
+  // Every request shares this servlet instance, so these are only ever set up once. Anything that
+  // depends on the request lives in a CommentQuery instead.
+  private final DatastoreService datastore;
+  private final ExecutorService translationExecutor;
+  private final CommentTranslator commentTranslator;
+  private RecentCommentsCache recentComments;
+
+  public DataServlet() {
+    this(DatastoreServiceFactory.getDatastoreService(), CloudTranslator.createDefault());
+  }
+
+  // Lets tests swap in a local Datastore and a fake translator.
+  DataServlet(DatastoreService datastore, Translator translator) {
+    this.datastore = datastore;
+    // One pool for every request, so the number of translation threads stays bounded under load.
+    this.translationExecutor = CommentTranslator.newExecutor();
+    this.commentTranslator =
+        new CommentTranslator(
+            datastore,
+            translator,
+            new TranslationCache(TRANSLATION_CACHE_SIZE),
+            translationExecutor,
+            TRANSLATION_DEADLINE_MILLIS);
+  }
+
+  @Override
+  public void init() {
+    recentComments = RecentCommentsCache.get(getServletContext());
+  }
+
+  @Override
+  public void destroy() {
+    translationExecutor.shutdownNow();
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Query query = new Query("Comment").addSort("timestamp", SortDirection.ASCENDING);
-    loadedComments = datastore.prepare(query);
+    CommentQuery commentQuery;
+    try {
+      commentQuery = CommentQuery.fromRequest(request);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cursor.");
+      return;
+    }
 
-    int commentLimit = getNumberOfCommentsToDisplay(request);
+    // The newest page of all comments is the same for everyone, so it comes from the shared cache;
+    // older pages and pages for a single author are read straight from Datastore.
+    RecentCommentsCache.Page page = commentQuery.startCursor == null && commentQuery.author == null
+        ? recentComments.get(commentQuery.pageSize, pageSize -> readPage(commentQuery))
+        : readPage(commentQuery);
+    List<Entity> entities = page.getEntities();
+
+    // Translate the whole page at once, so uncached comments share one batched call.
+    List<String> translatedTexts = commentTranslator.translate(entities, commentQuery.languageCode);
 
     List<Comment> comments = new ArrayList<>();
-    for (Entity entity : loadedComments.asList(FetchOptions.Builder.withLimit(commentLimit))) {
+    for (int i = 0; i < entities.size(); i++) {
+      Entity entity = entities.get(i);
       long id = entity.getKey().getId();
-      String timestamp = (String) entity.getProperty("timestamp");
-      String email = (String) entity.getProperty("email");
-
-      String text = (String) entity.getProperty("text");
-      String translatedText = translateCommentText(request, text);
+      long timestamp = CommentEntities.getTimestampMillis(entity);
+      String author = CommentEntities.getAuthor(entity);
 
-      Comment comment = new Comment(id, translatedText, timestamp, email);
+      Comment comment = new Comment(id, translatedTexts.get(i), timestamp, author);
       comments.add(comment);
     }
 
-    String json = convertToJson(comments);
+    String json = convertToJson(new CommentPage(comments, page.getCursor()));
     response.setContentType("application/json; charset=UTF-8");
     response.setCharacterEncoding("UTF-8");
     response.getWriter().println(json);
   }
 
+  // Reads one page of comments from Datastore. Only the entities on the page are read, however
+  // many comments there are in total, and they come back already sorted by the index.
+  private RecentCommentsCache.Page readPage(CommentQuery commentQuery) {
+    // Newest first, so the first page is the latest comments and later pages go back in time.
+    Query query =
+        new Query(CommentEntities.KIND).addSort("timestamp", SortDirection.DESCENDING);
+    // Only numeric timestamps. Strings sort after every number, so comments that haven't been
+    // migrated yet would otherwise come first, shown as 1970.
+    Filter migrated =
+        new FilterPredicate("timestamp", FilterOperator.LESS_THAN_OR_EQUAL, Long.MAX_VALUE);
+    if (commentQuery.author != null) {
+      // Served by the (author, -timestamp) index in datastore-indexes.xml.
+      query.setFilter(
+          CompositeFilterOperator.and(
+              new FilterPredicate("author", FilterOperator.EQUAL, commentQuery.author),
+              migrated));
+    } else {
+      query.setFilter(migrated);
+    }
+    QueryResultList<Entity> entities =
+        datastore.prepare(query).asQueryResultList(commentQuery.fetchOptions());
+
+    // A short page means there is nothing left to load.
+    String nextCursor = null;
+    if (entities.size() == commentQuery.pageSize && entities.getCursor() != null) {
+      nextCursor = entities.getCursor().toWebSafeString();
+    }
+    return new RecentCommentsCache.Page(entities, nextCursor);
+  }
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     String newCommentText = getComment(request);
     UserService userService = UserServiceFactory.getUserService();
 
     if (newCommentText != null) {
-        Entity commentEntity = new Entity("Comment");
+        Entity commentEntity = new Entity(CommentEntities.KIND);
         commentEntity.setProperty("text", newCommentText);
-        commentEntity.setProperty("timestamp", getTimestamp());
+        commentEntity.setProperty("timestamp", System.currentTimeMillis());
         if (userService.isUserLoggedIn()) {
-            commentEntity.setProperty("email", userService.getCurrentUser().getEmail());
+            commentEntity.setProperty("author", userService.getCurrentUser().getEmail());
         } else {
-            commentEntity.setProperty("email", "guest");
+            commentEntity.setProperty("author", "guest");
         }
+        commentEntity.setProperty("language", getCommentLanguage(request));
 
-        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
         datastore.put(commentEntity);
+        recentComments.invalidate();
     }
 
     response.sendRedirect("/index.html");
   }
 
-  // Convert List to JSON using Gson library.
-  private String convertToJson(List<Comment> msgs) {
-    Gson gson = new Gson();
-    String json = gson.toJson(msgs);
-    return json;
+  // Convert the page to JSON using the shared Gson instance.
+  private String convertToJson(CommentPage page) {
+    return JsonCodec.GSON.toJson(page);
   }
  
  // Extracts comment text from request and returns it.
@@ -111,45 +201,85 @@ public class DataServlet extends HttpServlet {
     return newComment;
   }
 
-// Extracts user-defined limit for number of comments to display.
-  private int getNumberOfCommentsToDisplay(HttpServletRequest request) {
+// Extracts user-defined number of comments to show per page.
+  private static int getPageSize(HttpServletRequest request) {
     String requestValue = request.getParameter("commentLimit");
-    int numComments;
 
     // Null or empty check.
     if (requestValue == null || "null".equals(requestValue) || requestValue.isEmpty()) {
-      numComments = loadedComments.countEntities();
-      return numComments;
+      return DEFAULT_PAGE_SIZE;
     }
-    
-    // Parse `commentLimit` as a number, otherwise default to number of comments in Datastore.
+
+    // Parse `commentLimit` as a number, otherwise default to one normal-sized page.
+    int pageSize;
     try {
-        numComments = Integer.parseInt(requestValue);
+        pageSize = Integer.parseInt(requestValue);
     } catch (NumberFormatException e) {
-        System.err.println("Cannot parse user-defined comment limit; default to maximum.");
-        numComments = loadedComments.countEntities();
+        System.err.println("Cannot parse user-defined comment limit; default to one page.");
+        return DEFAULT_PAGE_SIZE;
     }
-
-    return numComments;
+    if (pageSize < 1) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    return Math.min(pageSize, MAX_PAGE_SIZE);
   }
 
-  // Helper function that translates text to the desired language.
-  private String translateCommentText(HttpServletRequest request, String text) {
+  // Extracts the language to translate comments to, defaulting to English.
+  private static String getLanguageCode(HttpServletRequest request) {
     String languageCode = request.getParameter("languageCode");
 
     // Null or empty check.
     if (languageCode == null || "null".equals(languageCode) || languageCode.isEmpty()) {
       languageCode = "en";
     }
+    return languageCode;
+  }
 
-    Translation translation = translate.translate(text, Translate.TranslateOption.targetLanguage(languageCode));
-    String translatedText = translation.getTranslatedText();
-    return translatedText;
+  // Extracts the language code the new comment is written in, if the user picked one.
+  private static String getCommentLanguage(HttpServletRequest request) {
+    String language = request.getParameter("language");
+
+    // Null or empty check.
+    if (language == null || language.isEmpty()) {
+      return CommentEntities.UNDETERMINED_LANGUAGE;
+    }
+    return language;
   }
 
-  // Get formatted timestamp for current date and time.
-  private String getTimestamp() {
-      DateFormat timestamp = SimpleDateFormat.getDateTimeInstance();
-      return timestamp.format(Calendar.getInstance().getTime());
+  // The parameters of one GET, parsed once up front. Immutable, so nothing about one request can
+  // leak into another that is running at the same time.
+  private static final class CommentQuery {
+    final int pageSize;
+    final Cursor startCursor;
+    final String languageCode;
+    // Only show comments by this author, or everyone's if null.
+    final String author;
+
+    private CommentQuery(int pageSize, Cursor startCursor, String languageCode, String author) {
+      this.pageSize = pageSize;
+      this.startCursor = startCursor;
+      this.languageCode = languageCode;
+      this.author = author;
+    }
+
+    // Throws IllegalArgumentException if the cursor parameter isn't a valid cursor.
+    static CommentQuery fromRequest(HttpServletRequest request) {
+      String cursor = request.getParameter("cursor");
+      Cursor startCursor =
+          cursor == null || cursor.isEmpty() ? null : Cursor.fromWebSafeString(cursor);
+      String author = request.getParameter("author");
+      if (author != null && author.isEmpty()) {
+        author = null;
+      }
+      return new CommentQuery(getPageSize(request), startCursor, getLanguageCode(request), author);
+    }
+
+    FetchOptions fetchOptions() {
+      FetchOptions options = FetchOptions.Builder.withLimit(pageSize);
+      if (startCursor != null) {
+        options.startCursor(startCursor);
+      }
+      return options;
+    }
   }
 }
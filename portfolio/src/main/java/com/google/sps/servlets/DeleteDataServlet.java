@@ -17,6 +17,7 @@ package com.google.sps.servlets;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.SortDirection;
@@ -29,6 +30,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.google.sps.classes.Comment;
+import com.google.sps.classes.CommentTranslator;
+import com.google.sps.classes.RecentCommentsCache;
 import com.google.gson.Gson;
 import java.util.*;
 
@@ -45,6 +48,16 @@ public class DeleteDataServlet extends HttpServlet {
     for (Entity entity : loadedComments.asIterable()) {
         datastore.delete(entity.getKey());
     }
+
+    // Saved translations are children of the comments, so they go too.
+    Query translationQuery = new Query(CommentTranslator.TRANSLATION_KIND).setKeysOnly();
+    List<Key> translationKeys = new ArrayList<>();
+    for (Entity entity : datastore.prepare(translationQuery).asIterable()) {
+        translationKeys.add(entity.getKey());
+    }
+    datastore.delete(translationKeys);
+
+    RecentCommentsCache.get(getServletContext()).invalidate();
     response.sendRedirect("/index.html");
   }
 }
@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultList;
+
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.appengine.api.users.UserService;
+import com.google.appengine.api.users.UserServiceFactory;
+import com.google.sps.classes.CommentEntities;
+import com.google.sps.classes.RecentCommentsCache;
+import java.text.DateFormat;
+import java.util.*;
+
+/** Servlet that converts comments saved in the old format to the new one (see CommentEntities).
+ *  Comments are read and written in batches. If the request runs low on time it stops and prints a
+ *  cursor to carry on from. Comments that are already converted are left alone, so it is safe to
+ *  run more than once. Only admins can run it. */
+@WebServlet("/migrate-comments")
+public class MigrateCommentsServlet extends HttpServlet {
+  // Comments read and written per Datastore call; 500 is the most one batch put allows.
+  private static final int BATCH_SIZE = 500;
+
+  // Stop starting new batches after this long, well inside App Engine's 60 second request limit.
+  private static final long TIME_BUDGET_MILLIS = 30000;
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    UserService userService = UserServiceFactory.getUserService();
+    if (!userService.isUserLoggedIn() || !userService.isUserAdmin()) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+
+    FetchOptions fetchOptions = FetchOptions.Builder.withLimit(BATCH_SIZE);
+    String startCursor = request.getParameter("cursor");
+    if (startCursor != null && !startCursor.isEmpty()) {
+      try {
+        fetchOptions.startCursor(Cursor.fromWebSafeString(startCursor));
+      } catch (IllegalArgumentException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cursor.");
+        return;
+      }
+    }
+
+    // The format DataServlet used to write timestamps with. Not thread-safe, so one per request.
+    DateFormat legacyFormat = DateFormat.getDateTimeInstance();
+    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    // Key order, which migrating a comment doesn't change, so the cursor stays valid throughout.
+    Query query = new Query(CommentEntities.KIND);
+
+    long deadline = System.currentTimeMillis() + TIME_BUDGET_MILLIS;
+    int read = 0;
+    int migrated = 0;
+    String nextCursor = null;
+    while (true) {
+      QueryResultList<Entity> batch = datastore.prepare(query).asQueryResultList(fetchOptions);
+      List<Entity> changed = new ArrayList<>();
+      for (Entity comment : batch) {
+        if (CommentEntities.migrate(comment, legacyFormat)) {
+          changed.add(comment);
+        }
+      }
+      if (!changed.isEmpty()) {
+        datastore.put(changed);
+      }
+      read += batch.size();
+      migrated += changed.size();
+
+      if (batch.size() < BATCH_SIZE) {
+        break;
+      }
+      fetchOptions.startCursor(batch.getCursor());
+      if (System.currentTimeMillis() > deadline) {
+        nextCursor = batch.getCursor().toWebSafeString();
+        break;
+      }
+    }
+
+    if (migrated > 0) {
+      RecentCommentsCache.get(getServletContext()).invalidate();
+    }
+
+    response.setContentType("text/plain; charset=UTF-8");
+    response.setCharacterEncoding("UTF-8");
+    response.getWriter().println("Read " + read + " comments and migrated " + migrated + ".");
+    if (nextCursor != null) {
+      response.getWriter().println("Not finished; POST again with cursor=" + nextCursor);
+    }
+  }
+}
@@ -58,27 +58,59 @@ function translateComments() {
     loadComments(commentLimit, languageCode);
 }
 
-// Load `commentLimit` comments.
+// Cursor for the next page of comments, or null once the last page is shown, and the
+// options the shown comments were loaded with.
+let nextCommentsCursor = null;
+let shownCommentLimit = null;
+let shownLanguageCode = null;
+
+// Load the newest `commentLimit` comments.
 function loadComments(commentLimit, languageCode) {
-    const URL = '/data?commentLimit=' + commentLimit + '&languageCode=' + languageCode;
+    fetchComments(commentLimit, languageCode, null);
+}
+
+// Load the next `commentLimit` comments after the ones already shown.
+function loadMoreComments() {
+    fetchComments(shownCommentLimit, shownLanguageCode, nextCommentsCursor);
+}
+
+// Fetch one page of comments, replacing the shown comments unless `cursor` is given.
+function fetchComments(commentLimit, languageCode, cursor) {
+    let URL = '/data?commentLimit=' + commentLimit + '&languageCode=' + languageCode;
+    if (cursor) {
+        URL += '&cursor=' + encodeURIComponent(cursor);
+    }
+    // Show a single author's comments when the page is opened with ?author=<email>.
+    const author = (new URL(document.location)).searchParams.get('author');
+    if (author) {
+        URL += '&author=' + encodeURIComponent(author);
+    }
     console.log(URL);
-    fetch(URL).then(response => response.json()).then(allComments => {
+    fetch(URL).then(response => response.json()).then(page => {
     const commentContainer = document.getElementById('comment-container');
 
     // Prevent visual "glitch" when comments show up twice.
-    commentContainer.innerHTML = "";
+    if (!cursor) {
+        commentContainer.innerHTML = "";
+    }
 
-    allComments.forEach(commentText => {
-      const commentItem = createCommentItem(commentText.text, commentText.timestamp, commentText.email);
+    page.comments.forEach(commentText => {
+      const commentItem = createCommentItem(commentText.text, commentText.timestamp, commentText.author);
       commentContainer.appendChild(commentItem);
     });
+
+    nextCommentsCursor = page.cursor;
+    shownCommentLimit = commentLimit;
+    shownLanguageCode = languageCode;
+    document.getElementById('more-comments').hidden = !page.cursor;
   });
 }
 
-// Helper function to instantiate each comment.
-function createCommentItem(text, timestamp, email) {
+// Helper function to instantiate each comment. `timestamp` is in milliseconds since the epoch.
+function createCommentItem(text, timestamp, author) {
   const commentItem = document.createElement('div');
-  commentItem.innerText = "\"" + text + "\" sent on " + timestamp + " by " + email;
+  const sentOn = new Date(timestamp).toLocaleString();
+  commentItem.innerText = "\"" + text + "\" sent on " + sentOn + " by " + author;
   commentItem.className = "comment-item";
   return commentItem;
 }
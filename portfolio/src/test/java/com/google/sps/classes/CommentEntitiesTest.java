@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.text.DateFormat;
+import java.util.Date;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests reading and migrating old-format comment entities with {@link CommentEntities}. */
+@RunWith(JUnit4.class)
+public final class CommentEntitiesTest {
+  // Entities need an App Engine environment for their keys, even if they are never saved.
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+  private final DateFormat legacyFormat = DateFormat.getDateTimeInstance();
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  private static Entity legacyComment(Object timestamp) {
+    Entity comment = new Entity(CommentEntities.KIND);
+    comment.setProperty("text", "hello");
+    comment.setProperty("timestamp", timestamp);
+    comment.setProperty("email", "a@example.com");
+    return comment;
+  }
+
+  @Test
+  public void migrateConvertsLegacyComment() throws Exception {
+    String timestamp = legacyFormat.format(new Date(1590000000000L));
+    Entity comment = legacyComment(timestamp);
+
+    Assert.assertTrue(CommentEntities.migrate(comment, legacyFormat));
+
+    // The old format has no milliseconds.
+    Assert.assertEquals(legacyFormat.parse(timestamp).getTime(),
+        CommentEntities.getTimestampMillis(comment));
+    Assert.assertEquals("a@example.com", CommentEntities.getAuthor(comment));
+    Assert.assertFalse(comment.hasProperty("email"));
+    Assert.assertEquals(
+        CommentEntities.UNDETERMINED_LANGUAGE, CommentEntities.getLanguage(comment));
+  }
+
+  @Test
+  public void migrateKeepsUnparsableTimestamp() {
+    Entity comment = legacyComment("sometime last week");
+
+    Assert.assertTrue(CommentEntities.migrate(comment, legacyFormat));
+
+    // Numeric, so the comment isn't filtered out of the feed.
+    Assert.assertEquals(0L, comment.getProperty("timestamp"));
+    Assert.assertEquals(
+        "sometime last week", comment.getProperty(CommentEntities.LEGACY_TIMESTAMP));
+    Assert.assertEquals("a@example.com", CommentEntities.getAuthor(comment));
+    Assert.assertFalse(CommentEntities.migrate(comment, legacyFormat));
+  }
+
+  @Test
+  public void migrateGivesMissingTimestampZero() {
+    Entity comment = new Entity(CommentEntities.KIND);
+    comment.setProperty("text", "hello");
+
+    Assert.assertTrue(CommentEntities.migrate(comment, legacyFormat));
+
+    Assert.assertEquals(0L, comment.getProperty("timestamp"));
+    Assert.assertFalse(comment.hasProperty(CommentEntities.LEGACY_TIMESTAMP));
+  }
+
+  @Test
+  public void migrateTwiceChangesNothing() {
+    Entity comment = legacyComment(legacyFormat.format(new Date()));
+    CommentEntities.migrate(comment, legacyFormat);
+
+    Assert.assertFalse(CommentEntities.migrate(comment, legacyFormat));
+  }
+
+  @Test
+  public void migrateSkipsNewComment() {
+    Entity comment = new Entity(CommentEntities.KIND);
+    comment.setProperty("timestamp", 1590000000000L);
+    comment.setProperty("author", "guest");
+    comment.setProperty("language", "en");
+
+    Assert.assertFalse(CommentEntities.migrate(comment, legacyFormat));
+    Assert.assertEquals(1590000000000L, CommentEntities.getTimestampMillis(comment));
+  }
+}
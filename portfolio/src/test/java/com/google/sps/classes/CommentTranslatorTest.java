@@ -0,0 +1,310 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link CommentTranslator} against a fake {@link Translator} and a local Datastore. */
+@RunWith(JUnit4.class)
+public final class CommentTranslatorTest {
+  private static final long DEADLINE_MILLIS = 5000;
+
+  /* Translates by prefixing the language code, and remembers every text it was asked for. */
+  private static final class FakeTranslator implements Translator {
+    final List<String> requested = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public List<String> translate(List<String> texts, String targetLanguage) {
+      requested.addAll(texts);
+      List<String> results = new ArrayList<>(texts.size());
+      for (String text : texts) {
+        results.add(targetLanguage + ":" + text);
+      }
+      return results;
+    }
+  }
+
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+  private DatastoreService datastore;
+  private ExecutorService executor;
+  private FakeTranslator translator;
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+    datastore = DatastoreServiceFactory.getDatastoreService();
+    executor = CommentTranslator.newExecutor();
+    translator = new FakeTranslator();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+    helper.tearDown();
+  }
+
+  private CommentTranslator newCommentTranslator(Translator translator) {
+    return newCommentTranslator(translator, executor, DEADLINE_MILLIS);
+  }
+
+  private CommentTranslator newCommentTranslator(
+      Translator translator, ExecutorService executor, long deadlineMillis) {
+    return new CommentTranslator(
+        datastore, translator, new TranslationCache(100), executor, deadlineMillis);
+  }
+
+  /* Batches run in parallel, so the order the Translator sees texts in isn't fixed. */
+  private static List<String> sorted(List<String> texts) {
+    List<String> sorted = new ArrayList<>(texts);
+    Collections.sort(sorted);
+    return sorted;
+  }
+
+  private static String[] numbered(int count) {
+    String[] texts = new String[count];
+    for (int i = 0; i < count; i++) {
+      texts[i] = "comment " + i;
+    }
+    return texts;
+  }
+
+  private List<Entity> saveComments(String... texts) {
+    List<Entity> comments = new ArrayList<>();
+    for (String text : texts) {
+      Entity comment = new Entity(CommentEntities.KIND);
+      comment.setProperty("text", text);
+      comment.setProperty("language", "en");
+      datastore.put(comment);
+      comments.add(comment);
+    }
+    return comments;
+  }
+
+  @Test
+  public void translatesInOrder() {
+    List<Entity> comments = saveComments("one", "two", "three");
+
+    List<String> actual = newCommentTranslator(translator).translate(comments, "es");
+
+    Assert.assertEquals(Arrays.asList("es:one", "es:two", "es:three"), actual);
+  }
+
+  @Test
+  public void cacheHitSkipsTranslator() {
+    List<Entity> comments = saveComments("one", "two");
+    CommentTranslator commentTranslator = newCommentTranslator(translator);
+    commentTranslator.translate(comments, "es");
+    translator.requested.clear();
+
+    // Gone from Datastore, so these can only come from the cache.
+    for (Entity comment : comments) {
+      datastore.delete(comment.getKey());
+    }
+    List<String> actual = commentTranslator.translate(comments, "es");
+
+    Assert.assertEquals(Arrays.asList("es:one", "es:two"), actual);
+    Assert.assertTrue(translator.requested.isEmpty());
+  }
+
+  @Test
+  public void savedTranslationSkipsTranslator() {
+    List<Entity> comments = saveComments("one", "two");
+    newCommentTranslator(translator).translate(comments, "es");
+    translator.requested.clear();
+
+    // A new cache, like another server or a restart: the translations come from Datastore.
+    List<String> actual = newCommentTranslator(translator).translate(comments, "es");
+
+    Assert.assertEquals(Arrays.asList("es:one", "es:two"), actual);
+    Assert.assertTrue(translator.requested.isEmpty());
+  }
+
+  @Test
+  public void onlyMissesAreSentToTranslator() {
+    List<Entity> comments = saveComments("one", "two", "three", "four");
+    CommentTranslator commentTranslator = newCommentTranslator(translator);
+    commentTranslator.translate(comments.subList(0, 1), "es");
+    newCommentTranslator(translator).translate(comments.subList(1, 2), "es");
+    translator.requested.clear();
+
+    // "one" is cached, "two" is saved in Datastore and the rest are new.
+    List<String> actual = commentTranslator.translate(comments, "es");
+
+    Assert.assertEquals(Arrays.asList("es:one", "es:two", "es:three", "es:four"), actual);
+    Assert.assertEquals(Arrays.asList("four", "three"), sorted(translator.requested));
+  }
+
+  @Test
+  public void eachLanguageIsTranslatedSeparately() {
+    List<Entity> comments = saveComments("one");
+    CommentTranslator commentTranslator = newCommentTranslator(translator);
+
+    Assert.assertEquals(
+        Arrays.asList("es:one"), commentTranslator.translate(comments, "es"));
+    Assert.assertEquals(
+        Arrays.asList("fr:one"), commentTranslator.translate(comments, "fr"));
+    Assert.assertEquals(Arrays.asList("one", "one"), translator.requested);
+  }
+
+  @Test
+  public void commentInTargetLanguageIsNotTranslated() {
+    List<Entity> comments = saveComments("one");
+
+    List<String> actual = newCommentTranslator(translator).translate(comments, "en");
+
+    Assert.assertEquals(Arrays.asList("one"), actual);
+    Assert.assertTrue(translator.requested.isEmpty());
+  }
+
+  @Test
+  public void parallelBatchesKeepTheirPlace() {
+    String[] texts = numbered(100);
+    List<Entity> comments = saveComments(texts);
+    Random random = new Random(1);
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    // Batches finish in a random order.
+    Translator slowTranslator = (batch, language) -> {
+      batchSizes.add(batch.size());
+      try {
+        Thread.sleep(random.nextInt(50));
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return translator.translate(batch, language);
+    };
+
+    List<String> actual = newCommentTranslator(slowTranslator).translate(comments, "es");
+
+    for (int i = 0; i < texts.length; i++) {
+      Assert.assertEquals("es:" + texts[i], actual.get(i));
+    }
+    Assert.assertEquals(CommentTranslator.MAX_PARALLEL_CALLS, batchSizes.size());
+  }
+
+  @Test
+  public void batchPastDeadlineShowsOriginal() {
+    // 16 comments make 8 batches of 2; the batch with comments 4 and 5 never finishes in time.
+    String[] texts = numbered(16);
+    List<Entity> comments = saveComments(texts);
+    Translator stuckTranslator = (batch, language) -> {
+      if (batch.contains(texts[5])) {
+        try {
+          Thread.sleep(60000);
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      return translator.translate(batch, language);
+    };
+
+    long start = System.nanoTime();
+    List<String> actual =
+        newCommentTranslator(stuckTranslator, executor, 200).translate(comments, "es");
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    for (int i = 0; i < texts.length; i++) {
+      String expected = i == 4 || i == 5 ? texts[i] : "es:" + texts[i];
+      Assert.assertEquals(expected, actual.get(i));
+    }
+    Assert.assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 5000);
+
+    // The late batch wasn't saved, so it is sent again; the rest come from Datastore.
+    translator.requested.clear();
+    newCommentTranslator(translator).translate(comments, "es");
+    Assert.assertEquals(Arrays.asList(texts[4], texts[5]), sorted(translator.requested));
+  }
+
+  @Test
+  public void singleSlowBatchShowsOriginalAtDeadline() {
+    // One miss makes one batch, which still has to keep to the deadline.
+    List<Entity> comments = saveComments("one");
+    Translator stuckTranslator = (batch, language) -> {
+      try {
+        Thread.sleep(60000);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return translator.translate(batch, language);
+    };
+
+    long start = System.nanoTime();
+    List<String> actual =
+        newCommentTranslator(stuckTranslator, executor, 200).translate(comments, "es");
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    Assert.assertEquals(Arrays.asList("one"), actual);
+    Assert.assertTrue("took " + elapsedMillis + " ms", elapsedMillis < 1000);
+  }
+
+  @Test
+  public void busyExecutorShowsOriginal() {
+    // One thread, kept busy, and no queue, so every batch is rejected.
+    ExecutorService busy = new ThreadPoolExecutor(
+        1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+    busy.execute(() -> {
+      try {
+        Thread.sleep(60000);
+      } catch (InterruptedException e) {
+        // Shut down.
+      }
+    });
+    try {
+      List<Entity> comments = saveComments("one", "two");
+
+      List<String> actual =
+          newCommentTranslator(translator, busy, DEADLINE_MILLIS).translate(comments, "es");
+
+      Assert.assertEquals(Arrays.asList("one", "two"), actual);
+    } finally {
+      busy.shutdownNow();
+    }
+  }
+
+  @Test
+  public void failedTranslationShowsOriginalAndIsRetried() {
+    List<Entity> comments = saveComments("one", "two");
+    Translator broken = (texts, language) -> {
+      throw new IllegalStateException("quota exceeded");
+    };
+
+    List<String> actual = newCommentTranslator(broken).translate(comments, "es");
+
+    Assert.assertEquals(Arrays.asList("one", "two"), actual);
+    // Nothing was saved, so a working translator is asked again.
+    newCommentTranslator(translator).translate(comments, "es");
+    Assert.assertEquals(Arrays.asList("one", "two"), sorted(translator.requested));
+  }
+}
@@ -0,0 +1,206 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link RecentCommentsCache}, including many threads reading while it is invalidated. */
+@RunWith(JUnit4.class)
+public final class RecentCommentsCacheTest {
+  private static final int THREADS = 16;
+
+  /* Stands in for Datastore: each page it loads records the version of the comments it saw in
+     its cursor. */
+  private static final class FakeLoader implements IntFunction<RecentCommentsCache.Page> {
+    final AtomicLong version = new AtomicLong();
+    final AtomicInteger loads = new AtomicInteger();
+
+    @Override
+    public RecentCommentsCache.Page apply(int pageSize) {
+      loads.incrementAndGet();
+      long seen = version.get();
+      Thread.yield();
+      return new RecentCommentsCache.Page(
+          Collections.emptyList(), pageSize + ":" + seen);
+    }
+  }
+
+  private static long versionOf(RecentCommentsCache.Page page) {
+    return Long.parseLong(page.getCursor().substring(page.getCursor().indexOf(':') + 1));
+  }
+
+  /* Runs task on THREADS threads at once and rethrows the first thing any of them threw. */
+  private static void runConcurrently(Runnable task) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+          task.run();
+        } catch (Throwable t) {
+          failure.compareAndSet(null, t);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+  }
+
+  @Test
+  public void concurrentMissesLoadOnce() throws InterruptedException {
+    RecentCommentsCache cache = new RecentCommentsCache(Long.MAX_VALUE);
+    FakeLoader loader = new FakeLoader();
+    RecentCommentsCache.Page first = cache.get(20, loader);
+
+    cache.invalidate();
+    List<RecentCommentsCache.Page> pages = Collections.synchronizedList(new ArrayList<>());
+    runConcurrently(() -> pages.add(cache.get(20, loader)));
+
+    Assert.assertEquals(2, loader.loads.get());
+    Assert.assertEquals(THREADS, pages.size());
+    for (RecentCommentsCache.Page page : pages) {
+      Assert.assertNotNull(page);
+      Assert.assertSame(pages.get(0), page);
+    }
+    Assert.assertTrue(first != pages.get(0));
+  }
+
+  @Test
+  public void pageSizesAreCachedSeparately() {
+    RecentCommentsCache cache = new RecentCommentsCache(Long.MAX_VALUE);
+    FakeLoader loader = new FakeLoader();
+
+    Assert.assertEquals("20:0", cache.get(20, loader).getCursor());
+    Assert.assertEquals("50:0", cache.get(50, loader).getCursor());
+    Assert.assertEquals("20:0", cache.get(20, loader).getCursor());
+    Assert.assertEquals(2, loader.loads.get());
+  }
+
+  @Test
+  public void invalidateReloads() {
+    RecentCommentsCache cache = new RecentCommentsCache(Long.MAX_VALUE);
+    FakeLoader loader = new FakeLoader();
+    cache.get(20, loader);
+
+    loader.version.incrementAndGet();
+    cache.invalidate();
+
+    Assert.assertEquals(1, versionOf(cache.get(20, loader)));
+    Assert.assertEquals(2, loader.loads.get());
+  }
+
+  @Test
+  public void expiredPageIsReloaded() throws InterruptedException {
+    RecentCommentsCache cache = new RecentCommentsCache(1);
+    FakeLoader loader = new FakeLoader();
+    cache.get(20, loader);
+
+    Thread.sleep(5);
+    loader.version.incrementAndGet();
+
+    Assert.assertEquals(1, versionOf(cache.get(20, loader)));
+  }
+
+  @Test
+  public void failedLoadIsNotCached() {
+    RecentCommentsCache cache = new RecentCommentsCache(Long.MAX_VALUE);
+    try {
+      cache.get(20, pageSize -> {
+        throw new IllegalStateException("Datastore is down");
+      });
+      Assert.fail();
+    } catch (IllegalStateException expected) {
+      Assert.assertEquals("Datastore is down", expected.getMessage());
+    }
+
+    FakeLoader loader = new FakeLoader();
+    Assert.assertEquals("20:0", cache.get(20, loader).getCursor());
+  }
+
+  @Test
+  public void noStalePageAfterInvalidate() throws InterruptedException {
+    RecentCommentsCache cache = new RecentCommentsCache(Long.MAX_VALUE);
+    FakeLoader loader = new FakeLoader();
+    // The version whose invalidate() has returned, like a doPost that has finished.
+    AtomicLong invalidated = new AtomicLong();
+    AtomicInteger invalidations = new AtomicInteger();
+    AtomicBoolean writing = new AtomicBoolean(true);
+    AtomicInteger nextThread = new AtomicInteger();
+    // The page served for each page size and generation, from reads that began and ended in
+    // that generation.
+    ConcurrentMap<String, RecentCommentsCache.Page> served = new ConcurrentHashMap<>();
+
+    runConcurrently(() -> {
+      int thread = nextThread.getAndIncrement();
+      if (thread == 0) {
+        // One writer: change the comments, then invalidate, as doPost does.
+        for (int i = 0; i < 1000; i++) {
+          long version = loader.version.incrementAndGet();
+          cache.invalidate();
+          invalidations.incrementAndGet();
+          invalidated.set(version);
+          Thread.yield();
+        }
+        writing.set(false);
+        return;
+      }
+      while (writing.get()) {
+        int pageSize = thread % 2 == 0 ? 20 : 50;
+        long mustSee = invalidated.get();
+        long generation = cache.generation();
+        RecentCommentsCache.Page page = cache.get(pageSize, loader);
+        Assert.assertTrue(
+            "version " + versionOf(page) + " served after " + mustSee + " was invalidated",
+            versionOf(page) >= mustSee);
+        if (cache.generation() == generation) {
+          RecentCommentsCache.Page other =
+              served.putIfAbsent(pageSize + "@" + generation, page);
+          Assert.assertTrue(
+              "two pages loaded in generation " + generation,
+              other == null || other == page);
+        }
+      }
+    });
+
+    // At most one load per page size for each generation: the first, and one per invalidate.
+    int generations = invalidations.get() + 1;
+    Assert.assertTrue(
+        loader.loads.get() + " loads for " + generations + " generations",
+        loader.loads.get() <= 2 * generations);
+  }
+}
@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link PageViewStore} that keeps every path's total as a property of a single Datastore
+ * entity. {@link PageViewCounter} caps the number of paths and only passes paths that are valid
+ * property names, so a checkpoint is one transactional get and one put.
+ */
+public final class DatastorePageViewStore implements PageViewStore {
+  private static final Key TOTALS_KEY = KeyFactory.createKey("PageViews", "totals");
+
+  private final DatastoreService datastore;
+
+  public DatastorePageViewStore(DatastoreService datastore) {
+    this.datastore = datastore;
+  }
+
+  @Override
+  public Map<String, Long> add(Map<String, Long> deltas) {
+    Transaction transaction = datastore.beginTransaction();
+    try {
+      Entity views;
+      try {
+        views = datastore.get(transaction, TOTALS_KEY);
+      } catch (EntityNotFoundException e) {
+        views = new Entity(TOTALS_KEY);
+      }
+
+      Map<String, Long> totals = new HashMap<>();
+      for (Map.Entry<String, Object> property : views.getProperties().entrySet()) {
+        totals.put(property.getKey(), (Long) property.getValue());
+      }
+      if (deltas.isEmpty()) {
+        return totals;
+      }
+
+      for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+        long total = totals.getOrDefault(delta.getKey(), 0L) + delta.getValue();
+        totals.put(delta.getKey(), total);
+        views.setUnindexedProperty(delta.getKey(), total);
+      }
+      datastore.put(transaction, views);
+      transaction.commit();
+      return totals;
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    }
+  }
+}
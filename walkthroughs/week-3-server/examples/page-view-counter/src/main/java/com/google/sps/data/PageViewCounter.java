@@ -0,0 +1,290 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts page views per path without locks. Each path has a {@link LongAdder} for its total, which
+ * spreads concurrent increments over per-core cells, and rings of per-second, per-minute and
+ * per-hour buckets for recent views.
+ *
+ * <p>Totals are checkpointed to a {@link PageViewStore} in the background. Each checkpoint sends
+ * only the views a path gained since the last successful one, and a path's adder keeps counting
+ * through a checkpoint, so a checkpoint that fails is simply made up by the next. Recent views are
+ * only kept in memory.
+ */
+public final class PageViewCounter {
+  /** The most paths counted separately. Views of other paths are counted under {@link #OTHER}. */
+  static final int MAX_PATHS = 256;
+
+  /**
+   * The longest path counted separately. Paths become Datastore property names, which are limited
+   * to 1500 bytes, and a character takes at most 3 bytes in UTF-8.
+   */
+  static final int MAX_PATH_LENGTH = 500;
+
+  /**
+   * The path that views are counted under once {@link #MAX_PATHS} paths have been seen, and for
+   * paths that don't start with {@code /} or are longer than {@link #MAX_PATH_LENGTH}.
+   */
+  public static final String OTHER = "(other)";
+
+  /** A span of time ending now. */
+  public enum Window {
+    MINUTE,
+    HOUR,
+    DAY
+  }
+
+  private final PageViewStore store;
+  private final long checkpointIntervalNanos;
+
+  private final ConcurrentHashMap<String, PathViews> views = new ConcurrentHashMap<>();
+
+  // Set while a checkpoint is queued or running, so that only one happens at a time.
+  private final AtomicBoolean checkpointing = new AtomicBoolean();
+  private volatile long lastCheckpointNanos;
+
+  // The last successful checkpoint. total() subtracts what it wrote from each adder and adds the
+  // stored totals, so both have to come from the same checkpoint; publishing them in one object
+  // guarantees that.
+  private volatile Checkpoint checkpoint;
+
+  /**
+   * Creates a counter seeded with the page totals already in {@code store}, which
+   * {@link #checkpointIfDue} checkpoints to no more than once per {@code checkpointInterval}.
+   */
+  public PageViewCounter(PageViewStore store, long checkpointInterval, TimeUnit unit) {
+    this.store = store;
+    this.checkpointIntervalNanos = unit.toNanos(checkpointInterval);
+    this.checkpoint = new Checkpoint(store.add(Collections.emptyMap()), new HashMap<>());
+    this.lastCheckpointNanos = System.nanoTime();
+  }
+
+  /** Records a view of {@code path} at {@code nowMillis}. */
+  public void record(String path, long nowMillis) {
+    PathViews pathViews = views.get(path);
+    if (pathViews == null) {
+      pathViews = views.computeIfAbsent(key(path), unused -> new PathViews());
+    }
+    pathViews.record(nowMillis);
+  }
+
+  /**
+   * Returns the views of {@code path} ever, including the ones checkpointed by other servers. For
+   * a path counted under {@link #OTHER}, returns the views of every such path.
+   */
+  public long total(String path) {
+    String key = key(path);
+    Checkpoint current = checkpoint;
+    long total = current.storedTotals.getOrDefault(key, 0L);
+    PathViews pathViews = views.get(key);
+    if (pathViews != null) {
+      total += pathViews.total.sum() - current.written(key);
+    }
+    return total;
+  }
+
+  /**
+   * Returns this server's views of {@code path} in the {@code window} before {@code nowMillis}. For
+   * a path counted under {@link #OTHER}, returns the views of every such path.
+   */
+  public long recent(String path, Window window, long nowMillis) {
+    PathViews pathViews = views.get(key(path));
+    return pathViews == null ? 0 : pathViews.recent(window, nowMillis);
+  }
+
+  /** Returns the path that views of {@code path} are counted under. */
+  private String key(String path) {
+    if (!path.startsWith("/") || path.length() > MAX_PATH_LENGTH) {
+      // Not a usable property name: it could be reserved, like __key__, or too long.
+      return OTHER;
+    }
+    // Stop adding paths at the cap, so that requests for made-up URLs can't use up the memory.
+    // The check and the add aren't atomic, so the cap can be passed by a few paths.
+    return views.containsKey(path) || views.size() < MAX_PATHS ? path : OTHER;
+  }
+
+  /**
+   * Starts a checkpoint on {@code executor} if the checkpoint interval has passed and no other
+   * checkpoint is running. Errors are logged, and the views are written by the next checkpoint.
+   */
+  public void checkpointIfDue(Executor executor) {
+    if (System.nanoTime() - lastCheckpointNanos < checkpointIntervalNanos
+        || !checkpointing.compareAndSet(false, true)) {
+      return;
+    }
+    // Set before the checkpoint runs, so while Datastore is down requests start at most one
+    // checkpoint per interval rather than one each.
+    lastCheckpointNanos = System.nanoTime();
+    try {
+      executor.execute(
+          () -> {
+            try {
+              writeCheckpoint();
+            } catch (RuntimeException e) {
+              System.err.println("Could not checkpoint page views, will retry: " + e);
+            } finally {
+              checkpointing.set(false);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      checkpointing.set(false);
+    }
+  }
+
+  /**
+   * Checkpoints now on the calling thread, whatever the interval, for when the servlet is shutting
+   * down. Waits for any checkpoint already running.
+   */
+  public void checkpoint() {
+    writeCheckpoint();
+  }
+
+  private synchronized void writeCheckpoint() {
+    Checkpoint current = checkpoint;
+    Map<String, Long> counted = new HashMap<>();
+    Map<String, Long> deltas = new HashMap<>();
+    for (Map.Entry<String, PathViews> entry : views.entrySet()) {
+      long total = entry.getValue().total.sum();
+      counted.put(entry.getKey(), total);
+      long delta = total - current.written(entry.getKey());
+      if (delta > 0) {
+        deltas.put(entry.getKey(), delta);
+      }
+    }
+
+    Map<String, Long> storedTotals = store.add(deltas);
+    checkpoint = new Checkpoint(storedTotals, counted);
+  }
+
+  /**
+   * One checkpoint: every path's total in the store right after it, and each path's adder at the
+   * moment it was read for the checkpoint.
+   */
+  private static final class Checkpoint {
+    final Map<String, Long> storedTotals;
+    final Map<String, Long> written;
+
+    Checkpoint(Map<String, Long> storedTotals, Map<String, Long> written) {
+      this.storedTotals = storedTotals;
+      this.written = written;
+    }
+
+    long written(String path) {
+      Long count = written.get(path);
+      return count == null ? 0 : count;
+    }
+  }
+
+  /**
+   * The views of one path. Recent views are kept in buckets, each a long with the second, minute or
+   * hour it belongs to in the upper 32 bits and its count in the lower 32 bits. A bucket left over
+   * from an earlier time is reset by the first view that lands in it, with the same
+   * compare-and-set as the increment, so no view is lost to a reset.
+   */
+  private static final class PathViews {
+    private static final int SECONDS = 60;
+    private static final int MINUTES = 60;
+    private static final int HOURS = 24;
+    private static final int BUCKETS = SECONDS + MINUTES + HOURS;
+
+    // One set of buckets per stripe, so threads on different cores mostly touch different ones.
+    private static final int STRIPES =
+        Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 16) * 2 - 1);
+
+    final LongAdder total = new LongAdder();
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+    PathViews() {
+      for (int i = 0; i < STRIPES; i++) {
+        stripes[i] = new AtomicLongArray(BUCKETS);
+      }
+    }
+
+    void record(long nowMillis) {
+      total.increment();
+
+      long second = nowMillis / 1000;
+      long minute = second / 60;
+      long hour = minute / 60;
+      AtomicLongArray buckets = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+      increment(buckets, (int) (second % SECONDS), second);
+      increment(buckets, SECONDS + (int) (minute % MINUTES), minute);
+      increment(buckets, SECONDS + MINUTES + (int) (hour % HOURS), hour);
+    }
+
+    long recent(Window window, long nowMillis) {
+      int first;
+      int count;
+      long now;
+      switch (window) {
+        case MINUTE:
+          first = 0;
+          count = SECONDS;
+          now = nowMillis / 1000;
+          break;
+        case HOUR:
+          first = SECONDS;
+          count = MINUTES;
+          now = nowMillis / (60 * 1000);
+          break;
+        default:
+          first = SECONDS + MINUTES;
+          count = HOURS;
+          now = nowMillis / (60 * 60 * 1000);
+          break;
+      }
+
+      long sum = 0;
+      for (AtomicLongArray buckets : stripes) {
+        for (int i = first; i < first + count; i++) {
+          long bucket = buckets.get(i);
+          long time = bucket >>> 32;
+          if (time <= now && time > now - count) {
+            sum += bucket & 0xFFFFFFFFL;
+          }
+        }
+      }
+      return sum;
+    }
+
+    private static void increment(AtomicLongArray buckets, int index, long time) {
+      while (true) {
+        long bucket = buckets.get(index);
+        long bucketTime = bucket >>> 32;
+        if (bucketTime > time) {
+          // A slower thread with an older time. The bucket has moved on by a whole ring, so this
+          // view is already outside every window.
+          return;
+        }
+        long next = bucketTime == time ? bucket + 1 : (time << 32) | 1;
+        if (buckets.compareAndSet(index, bucket, next)) {
+          return;
+        }
+      }
+    }
+  }
+}
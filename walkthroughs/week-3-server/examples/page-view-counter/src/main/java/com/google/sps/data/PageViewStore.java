@@ -0,0 +1,30 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Map;
+
+/**
+ * Durable storage for page-view totals. {@link PageViewCounter} only passes paths that start with
+ * {@code /} and are at most {@link PageViewCounter#MAX_PATH_LENGTH} characters long, plus
+ * {@link PageViewCounter#OTHER}.
+ */
+public interface PageViewStore {
+  /**
+   * Adds {@code deltas} to the stored totals in one atomic write, and returns the totals for every
+   * path afterwards. Passing an empty map just reads the totals.
+   */
+  Map<String, Long> add(Map<String, Long> deltas);
+}
@@ -14,24 +14,94 @@
 
 package com.google.sps.servlets;
 
+import com.google.appengine.api.ThreadManager;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.sps.data.DatastorePageViewStore;
+import com.google.sps.data.PageViewCounter;
+import com.google.sps.data.PageViewCounter.Window;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-/** Servlet that returns HTML that contains the page view count. */
-@WebServlet("/page-views")
+/**
+ * Servlet that returns HTML that contains the page view count. Each path under
+ * {@code /page-views/} is counted separately, and {@code /page-views} itself counts as {@code /}.
+ */
+@WebServlet("/page-views/*")
 public class PageViewServlet extends HttpServlet {
 
-  private int pageViews = 0;
+  private static final long CHECKPOINT_INTERVAL_SECONDS = 10;
+
+  // Threads on App Engine can't outlive the request that started them, so each checkpoint runs
+  // alongside the request that triggers it instead of in a long-lived background thread.
+  private static final Executor REQUEST_THREAD =
+      command -> ThreadManager.currentRequestThreadFactory().newThread(command).start();
+
+  private PageViewCounter pageViews;
+
+  @Override
+  public void init() {
+    pageViews =
+        new PageViewCounter(
+            new DatastorePageViewStore(DatastoreServiceFactory.getDatastoreService()),
+            CHECKPOINT_INTERVAL_SECONDS,
+            TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void destroy() {
+    pageViews.checkpoint();
+  }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    pageViews++;
+    String path = request.getPathInfo() == null ? "/" : request.getPathInfo();
+    long now = System.currentTimeMillis();
+    pageViews.record(path, now);
+    pageViews.checkpointIfDue(REQUEST_THREAD);
 
     response.setContentType("text/html;");
-    response.getWriter().println("<h1>Page Views</h1>");
-    response.getWriter().println("<p>This page has been viewed " + pageViews + " times.</p>");
+    PrintWriter out = response.getWriter();
+    out.println("<h1>Page Views</h1>");
+    out.println(
+        "<p>" + escapeHtml(path) + " has been viewed " + pageViews.total(path) + " times.</p>");
+    out.println("<ul>");
+    out.println("<li>Last minute: " + pageViews.recent(path, Window.MINUTE, now) + "</li>");
+    out.println("<li>Last hour: " + pageViews.recent(path, Window.HOUR, now) + "</li>");
+    out.println("<li>Last day: " + pageViews.recent(path, Window.DAY, now) + "</li>");
+    out.println("</ul>");
+  }
+
+  /** Escapes {@code text} so that it shows up as-is in HTML. */
+  private static String escapeHtml(String text) {
+    StringBuilder escaped = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '<':
+          escaped.append("&lt;");
+          break;
+        case '>':
+          escaped.append("&gt;");
+          break;
+        case '&':
+          escaped.append("&amp;");
+          break;
+        case '"':
+          escaped.append("&quot;");
+          break;
+        case '\'':
+          escaped.append("&#39;");
+          break;
+        default:
+          escaped.append(c);
+      }
+    }
+    return escaped.toString();
   }
 }
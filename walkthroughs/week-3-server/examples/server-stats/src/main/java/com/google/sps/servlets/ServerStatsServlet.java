@@ -26,6 +26,8 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/server-stats")
 public final class ServerStatsServlet extends HttpServlet {
 
+  private static final Gson GSON = new Gson();
+
   private final Date startTime = new Date();
 
   @Override
@@ -69,8 +71,7 @@ public final class ServerStatsServlet extends HttpServlet {
    * the Gson library dependency to pom.xml.
    */
   private String convertToJsonUsingGson(ServerStats serverStats) {
-    Gson gson = new Gson();
-    String json = gson.toJson(serverStats);
+    String json = GSON.toJson(serverStats);
     return json;
   }
 }
@@ -26,4 +26,16 @@ public final class Task {
     this.title = title;
     this.timestamp = timestamp;
   }
-}
\ No newline at end of file
+
+  public long getId() {
+    return id;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/** JSON codec for tasks. */
+public final class TaskJson {
+  /** Reads and writes a {@link Task} as {@code {"id": ..., "title": ..., "timestamp": ...}}. */
+  public static final TypeAdapter<Task> TASK = new TypeAdapter<Task>() {
+    @Override
+    public void write(JsonWriter out, Task task) throws IOException {
+      if (task == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("id").value(task.getId());
+      out.name("title").value(task.getTitle());
+      out.name("timestamp").value(task.getTimestamp());
+      out.endObject();
+    }
+
+    @Override
+    public Task read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      long id = 0;
+      String title = null;
+      long timestamp = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "id":
+            id = in.nextLong();
+            break;
+          case "title":
+            title = in.nextString();
+            break;
+          case "timestamp":
+            timestamp = in.nextLong();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new Task(id, title, timestamp);
+    }
+  };
+
+  /** A Gson instance that uses the adapter above. */
+  public static final Gson GSON = new GsonBuilder().registerTypeAdapter(Task.class, TASK).create();
+
+  private TaskJson() {}
+}
@@ -20,8 +20,8 @@ import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.SortDirection;
-import com.google.gson.Gson;
 import com.google.sps.data.Task;
+import com.google.sps.data.TaskJson;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,9 +51,7 @@ public class ListTasksServlet extends HttpServlet {
       tasks.add(task);
     }
 
-    Gson gson = new Gson();
-
     response.setContentType("application/json;");
-    response.getWriter().println(gson.toJson(tasks));
+    response.getWriter().println(TaskJson.GSON.toJson(tasks));
   }
 }
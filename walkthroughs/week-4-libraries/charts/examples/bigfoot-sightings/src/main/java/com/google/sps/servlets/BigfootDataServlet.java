@@ -16,6 +16,7 @@ package com.google.sps.servlets;
 
 import com.google.gson.Gson;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Scanner;
 import javax.servlet.annotation.WebServlet;
@@ -27,8 +28,13 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/bigfoot-data")
 public class BigfootDataServlet extends HttpServlet {
 
+  private static final Gson GSON = new Gson();
+
   private LinkedHashMap<Integer, Integer> bigfootSightings = new LinkedHashMap<>();
 
+  // The data never changes after init(), so it is only converted to JSON once.
+  private PrecomputedResponse bigfootJson;
+
   @Override
   public void init() {
     Scanner scanner = new Scanner(getServletContext().getResourceAsStream(
@@ -43,13 +49,14 @@ public class BigfootDataServlet extends HttpServlet {
       bigfootSightings.put(year, sightings);
     }
     scanner.close();
+
+    String json = GSON.toJson(bigfootSightings);
+    bigfootJson =
+        PrecomputedResponse.of("application/json", json.getBytes(StandardCharsets.UTF_8));
   }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    response.setContentType("application/json");
-    Gson gson = new Gson();
-    String json = gson.toJson(bigfootSightings);
-    response.getWriter().println(json);
+    bigfootJson.send(request, response);
   }
 }
@@ -0,0 +1,171 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts votes in memory and writes them to a {@link VoteStore} in batches. Only a fixed set of
+ * colors can be voted for, since each one ends up as a property name in the store. Each color has
+ * a {@link LongAdder}, which spreads concurrent increments over several cells instead of making
+ * every voter fight over one, so voting takes no locks.
+ *
+ * <p>The adders are never reset. Instead the counter remembers how much of each adder has already
+ * been written, and a flush writes the difference. A failed flush changes nothing, so its votes
+ * are simply written by the next one.
+ */
+public final class VoteCounter {
+  private final VoteStore store;
+  private final long flushIntervalNanos;
+
+  // One adder per color, created up front and never added to, so it can be read without locks.
+  private final Map<String, LongAdder> votes;
+
+  // Held while flushing, so that only one flush runs at a time.
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private volatile long lastFlushNanos;
+
+  // What the last flush wrote and read back, replaced as a whole so readers always see a matching
+  // pair.
+  private volatile Flushed flushed;
+
+  /**
+   * Creates a counter for {@code colors} that starts from the totals in {@code store} and writes
+   * to it at most once every {@code flushInterval}.
+   */
+  public VoteCounter(
+      VoteStore store, Collection<String> colors, long flushInterval, TimeUnit unit) {
+    this.store = store;
+    Map<String, LongAdder> votes = new HashMap<>();
+    for (String color : colors) {
+      votes.put(color, new LongAdder());
+    }
+    this.votes = Collections.unmodifiableMap(votes);
+    this.flushIntervalNanos = unit.toNanos(flushInterval);
+    this.flushed = new Flushed(store.add(Collections.emptyMap()), new HashMap<>());
+    this.lastFlushNanos = System.nanoTime();
+  }
+
+  /** Returns {@code true} if {@code color} is one of the colors that can be voted for. */
+  public boolean isColor(String color) {
+    return votes.containsKey(color);
+  }
+
+  /**
+   * Records one vote for {@code color}. Throws {@link IllegalArgumentException} if it isn't one of
+   * the colors that can be voted for.
+   */
+  public void vote(String color) {
+    LongAdder adder = votes.get(color);
+    if (adder == null) {
+      throw new IllegalArgumentException("Unknown color: " + color);
+    }
+    adder.increment();
+  }
+
+  /**
+   * Returns the total votes for each color, sorted by color. Includes the votes stored by other
+   * servers as of the last flush, plus every vote counted here.
+   */
+  public SortedMap<String, Long> snapshot() {
+    Flushed current = flushed;
+    SortedMap<String, Long> totals = new TreeMap<>(current.storedTotals);
+    for (Map.Entry<String, LongAdder> entry : votes.entrySet()) {
+      long unwritten = entry.getValue().sum() - current.written(entry.getKey());
+      if (unwritten > 0) {
+        totals.merge(entry.getKey(), unwritten, Long::sum);
+      }
+    }
+    return Collections.unmodifiableSortedMap(totals);
+  }
+
+  /**
+   * Flushes if the flush interval has passed and no other flush is running. Meant to be called on
+   * the request path, so errors are logged instead of thrown.
+   *
+   * <p>The flush runs on the calling thread, so once per interval one request waits for a
+   * Datastore transaction before it returns. Every other request skips the flush and doesn't wait.
+   * The write isn't handed to another thread because a flush is one small transaction, and
+   * running it inline means the request's snapshot already includes what it wrote.
+   */
+  public void flushIfDue() {
+    if (System.nanoTime() - lastFlushNanos < flushIntervalNanos || !flushLock.tryLock()) {
+      return;
+    }
+    try {
+      if (System.nanoTime() - lastFlushNanos >= flushIntervalNanos) {
+        flushLocked();
+      }
+    } catch (RuntimeException e) {
+      System.err.println("Could not flush votes, will retry: " + e);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /** Writes every vote not yet in the store. */
+  public void flush() {
+    flushLock.lock();
+    try {
+      flushLocked();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void flushLocked() {
+    // Counts the attempt even if it fails, so a broken store isn't retried on every request.
+    lastFlushNanos = System.nanoTime();
+
+    Flushed current = flushed;
+    Map<String, Long> counted = new HashMap<>();
+    Map<String, Long> deltas = new HashMap<>();
+    for (Map.Entry<String, LongAdder> entry : votes.entrySet()) {
+      long total = entry.getValue().sum();
+      counted.put(entry.getKey(), total);
+      long delta = total - current.written(entry.getKey());
+      if (delta > 0) {
+        deltas.put(entry.getKey(), delta);
+      }
+    }
+
+    Map<String, Long> storedTotals = store.add(deltas);
+    flushed = new Flushed(storedTotals, counted);
+  }
+
+  /** The totals read back from the store, and how much of each adder they include. */
+  private static final class Flushed {
+    final Map<String, Long> storedTotals;
+    final Map<String, Long> written;
+
+    Flushed(Map<String, Long> storedTotals, Map<String, Long> written) {
+      this.storedTotals = storedTotals;
+      this.written = written;
+    }
+
+    long written(String color) {
+      Long count = written.get(color);
+      return count == null ? 0 : count;
+    }
+  }
+}
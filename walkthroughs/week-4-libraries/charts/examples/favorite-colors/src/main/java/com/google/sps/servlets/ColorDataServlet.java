@@ -14,35 +14,70 @@
 
 package com.google.sps.servlets;
 
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.gson.Gson;
+import com.google.sps.data.DatastoreVoteStore;
+import com.google.sps.data.VoteCounter;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-
+/**
+ * Counts votes for favorite colors. Votes are counted in memory and written to Datastore every
+ * few seconds, piggybacking on whichever request comes along, since a background thread can't
+ * outlive a request on App Engine.
+ */
 @WebServlet("/color-data")
 public class ColorDataServlet extends HttpServlet {
 
-  private Map<String, Integer> colorVotes = new HashMap<>();
+  private static final Gson GSON = new Gson();
+
+  private static final long FLUSH_INTERVAL_SECONDS = 5;
+
+  // The colors offered by the form in index.html.
+  private static final List<String> COLORS =
+      Arrays.asList("Red", "Orange", "Yellow", "Green", "Blue", "Violet");
+
+  private VoteCounter colorVotes;
+
+  @Override
+  public void init() {
+    colorVotes =
+        new VoteCounter(
+            new DatastoreVoteStore(DatastoreServiceFactory.getDatastoreService()),
+            COLORS,
+            FLUSH_INTERVAL_SECONDS,
+            TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void destroy() {
+    colorVotes.flush();
+  }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    colorVotes.flushIfDue();
+
     response.setContentType("application/json");
-    Gson gson = new Gson();
-    String json = gson.toJson(colorVotes);
+    String json = GSON.toJson(colorVotes.snapshot());
     response.getWriter().println(json);
   }
 
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     String color = request.getParameter("color");
-    int currentVotes = colorVotes.containsKey(color) ? colorVotes.get(color) : 0;
-    colorVotes.put(color, currentVotes + 1);
+    if (color == null || !colorVotes.isColor(color)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Pick a color");
+      return;
+    }
+    colorVotes.vote(color);
+    colorVotes.flushIfDue();
 
     response.sendRedirect("/index.html");
   }
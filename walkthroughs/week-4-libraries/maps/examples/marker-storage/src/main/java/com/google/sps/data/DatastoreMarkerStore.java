@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link MarkerStore} backed by Datastore. Only the geohash is indexed, and markers are read by
+ * a range scan over it.
+ */
+public final class DatastoreMarkerStore implements MarkerStore {
+  /** The most entities Datastore accepts in a single put. */
+  static final int MAX_BATCH_SIZE = 500;
+
+  // Saved once every marker has a geohash, so the backfill only ever runs once.
+  private static final Key GEOHASH_BACKFILL_DONE = KeyFactory.createKey("MarkerSchema", "geohash");
+
+  private final DatastoreService datastore;
+
+  public DatastoreMarkerStore(DatastoreService datastore) {
+    this.datastore = datastore;
+  }
+
+  @Override
+  public void putAll(Collection<Marker> markers) {
+    List<Entity> batch = new ArrayList<>(Math.min(markers.size(), MAX_BATCH_SIZE));
+    for (Marker marker : markers) {
+      batch.add(toEntity(marker));
+      if (batch.size() == MAX_BATCH_SIZE) {
+        datastore.put(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      datastore.put(batch);
+    }
+  }
+
+  /**
+   * Adds a geohash to the markers saved before markers had one, which the viewport queries would
+   * otherwise never find. Does nothing once it has finished, and is safe to run again or from two
+   * servers at once, since every run writes the same geohashes.
+   */
+  public void backfillGeohashes() {
+    try {
+      datastore.get(GEOHASH_BACKFILL_DONE);
+      return;
+    } catch (EntityNotFoundException e) {
+      // Not done yet.
+    }
+
+    // Datastore can't query for a missing property, so every marker is read once.
+    List<Entity> batch = new ArrayList<>();
+    int backfilled = 0;
+    for (Entity entity : datastore.prepare(new Query("Marker")).asIterable()) {
+      if (entity.hasProperty("geohash")) {
+        continue;
+      }
+      double lat = ((Number) entity.getProperty("lat")).doubleValue();
+      double lng = ((Number) entity.getProperty("lng")).doubleValue();
+      entity.setProperty("geohash", Geohash.encode(lat, lng, Geohash.MAX_PRECISION));
+      batch.add(entity);
+      if (batch.size() == MAX_BATCH_SIZE) {
+        datastore.put(batch);
+        backfilled += batch.size();
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      datastore.put(batch);
+      backfilled += batch.size();
+    }
+    datastore.put(new Entity(GEOHASH_BACKFILL_DONE));
+    if (backfilled > 0) {
+      System.err.println("Added geohashes to " + backfilled + " markers.");
+    }
+  }
+
+  @Override
+  public List<Marker> getAll() {
+    return run(new Query("Marker"));
+  }
+
+  @Override
+  public List<Marker> getByGeohashPrefix(String prefix) {
+    if (prefix.isEmpty()) {
+      return getAll();
+    }
+    // "~" sorts after every geohash character, so this matches exactly the geohashes that start
+    // with the prefix.
+    Query query =
+        new Query("Marker")
+            .setFilter(
+                CompositeFilterOperator.and(
+                    new FilterPredicate("geohash", FilterOperator.GREATER_THAN_OR_EQUAL, prefix),
+                    new FilterPredicate("geohash", FilterOperator.LESS_THAN, prefix + "~")));
+    return run(query);
+  }
+
+  private List<Marker> run(Query query) {
+    List<Marker> markers = new ArrayList<>();
+    for (Entity entity : datastore.prepare(query).asIterable()) {
+      double lat = (double) entity.getProperty("lat");
+      double lng = (double) entity.getProperty("lng");
+      String content = (String) entity.getProperty("content");
+      markers.add(new Marker(lat, lng, content));
+    }
+    return markers;
+  }
+
+  private static Entity toEntity(Marker marker) {
+    Entity entity = new Entity("Marker");
+    // Markers are only ever looked up by geohash, so the other properties don't need indexes.
+    entity.setUnindexedProperty("lat", marker.getLat());
+    entity.setUnindexedProperty("lng", marker.getLng());
+    entity.setUnindexedProperty("content", marker.getContent());
+    entity.setProperty(
+        "geohash", Geohash.encode(marker.getLat(), marker.getLng(), Geohash.MAX_PRECISION));
+    return entity;
+  }
+}
@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+/**
+ * Encodes lat/lng points as geohashes. A geohash names a cell of a grid over the map, and each
+ * extra character splits that cell into 32 smaller ones. Points that share a prefix are in the same
+ * cell, so a sorted index of geohashes can find every point in a cell with one range scan.
+ */
+public final class Geohash {
+  /** The length of the geohashes stored with markers, which is precise to a few centimeters. */
+  public static final int MAX_PRECISION = 12;
+
+  private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+  private Geohash() {}
+
+  /** Returns the geohash of {@code (lat, lng)} with {@code precision} characters. */
+  public static String encode(double lat, double lng, int precision) {
+    if (precision < 0 || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("precision must be between 0 and " + MAX_PRECISION);
+    }
+
+    double minLat = -90;
+    double maxLat = 90;
+    double minLng = -180;
+    double maxLng = 180;
+    char[] hash = new char[precision];
+    // Bits alternate between longitude and latitude, starting with longitude.
+    boolean lngBit = true;
+    for (int i = 0; i < precision; i++) {
+      int value = 0;
+      for (int bit = 0; bit < 5; bit++) {
+        value <<= 1;
+        if (lngBit) {
+          double middle = (minLng + maxLng) / 2;
+          if (lng >= middle) {
+            value |= 1;
+            minLng = middle;
+          } else {
+            maxLng = middle;
+          }
+        } else {
+          double middle = (minLat + maxLat) / 2;
+          if (lat >= middle) {
+            value |= 1;
+            minLat = middle;
+          } else {
+            maxLat = middle;
+          }
+        }
+        lngBit = !lngBit;
+      }
+      hash[i] = BASE32[value];
+    }
+    return new String(hash);
+  }
+
+  /** Returns the height in degrees of the cells of geohashes with {@code precision} characters. */
+  static double cellHeight(int precision) {
+    return 180 / Math.pow(2, (precision * 5) / 2);
+  }
+
+  /** Returns the width in degrees of the cells of geohashes with {@code precision} characters. */
+  static double cellWidth(int precision) {
+    return 360 / Math.pow(2, (precision * 5 + 1) / 2);
+  }
+}
@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link MarkerStore} that keeps markers in memory, sorted by geohash like the Datastore index
+ * would. Useful for running and testing without Datastore.
+ */
+public final class InMemoryMarkerStore implements MarkerStore {
+  // Keyed by geohash plus a sequence number, so markers at the same spot don't replace each other.
+  private final ConcurrentSkipListMap<String, Marker> markers = new ConcurrentSkipListMap<>();
+  private final AtomicLong nextId = new AtomicLong();
+
+  @Override
+  public void putAll(Collection<Marker> newMarkers) {
+    for (Marker marker : newMarkers) {
+      String geohash = Geohash.encode(marker.getLat(), marker.getLng(), Geohash.MAX_PRECISION);
+      markers.put(geohash + ":" + nextId.getAndIncrement(), marker);
+    }
+  }
+
+  @Override
+  public List<Marker> getAll() {
+    return new ArrayList<>(markers.values());
+  }
+
+  @Override
+  public List<Marker> getByGeohashPrefix(String prefix) {
+    // "~" sorts after every geohash character and after ":".
+    return new ArrayList<>(markers.subMap(prefix, prefix + "~").values());
+  }
+}
@@ -0,0 +1,82 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/** JSON codec for markers. */
+public final class MarkerJson {
+  /** Reads and writes a {@link Marker} as {@code {"lat": ..., "lng": ..., "content": ...}}. */
+  public static final TypeAdapter<Marker> MARKER = new TypeAdapter<Marker>() {
+    @Override
+    public void write(JsonWriter out, Marker marker) throws IOException {
+      if (marker == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("lat").value(marker.getLat());
+      out.name("lng").value(marker.getLng());
+      out.name("content").value(marker.getContent());
+      out.endObject();
+    }
+
+    @Override
+    public Marker read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      double lat = 0;
+      double lng = 0;
+      String content = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "lat":
+            lat = in.nextDouble();
+            break;
+          case "lng":
+            lng = in.nextDouble();
+            break;
+          case "content":
+            content = in.nextString();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new Marker(lat, lng, content);
+    }
+  };
+
+  /** A Gson instance that uses the adapter above. */
+  public static final Gson GSON =
+      new GsonBuilder().registerTypeAdapter(Marker.class, MARKER).create();
+
+  private MarkerJson() {}
+}
@@ -0,0 +1,30 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Collection;
+import java.util.List;
+
+/** Where markers are saved. Every marker is stored with its {@link Geohash}. */
+public interface MarkerStore {
+  /** Saves all of {@code markers} in one batch. */
+  void putAll(Collection<Marker> markers);
+
+  /** Returns every stored marker. */
+  List<Marker> getAll();
+
+  /** Returns the markers whose geohash starts with {@code prefix}. */
+  List<Marker> getByGeohashPrefix(String prefix);
+}
@@ -0,0 +1,106 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The part of the map a user is looking at. A viewport with {@code west > east} crosses the
+ * antimeridian and wraps around.
+ */
+public final class Viewport {
+  /** The most geohash prefixes used to cover a viewport, and so the most queries per request. */
+  static final int MAX_PREFIXES = 16;
+
+  private final double south;
+  private final double west;
+  private final double north;
+  private final double east;
+
+  public Viewport(double south, double west, double north, double east) {
+    if (!(south >= -90 && north <= 90 && south <= north)) {
+      throw new IllegalArgumentException("Invalid latitudes: " + south + ", " + north);
+    }
+    if (!(west >= -180 && west <= 180 && east >= -180 && east <= 180)) {
+      throw new IllegalArgumentException("Invalid longitudes: " + west + ", " + east);
+    }
+    this.south = south;
+    this.west = west;
+    this.north = north;
+    this.east = east;
+  }
+
+  /** Returns {@code true} if {@code (lat, lng)} is inside the viewport, edges included. */
+  public boolean contains(double lat, double lng) {
+    if (lat < south || lat > north) {
+      return false;
+    }
+    return west <= east ? lng >= west && lng <= east : lng >= west || lng <= east;
+  }
+
+  /**
+   * Returns geohash prefixes whose cells together cover the viewport. Uses the longest prefixes
+   * that need no more than {@value #MAX_PREFIXES} cells, so that as little as possible outside the
+   * viewport is read. May return a single empty prefix, which covers the whole map.
+   */
+  public List<String> coveringGeohashes() {
+    for (int precision = Geohash.MAX_PRECISION; precision > 0; precision--) {
+      Set<String> prefixes = new LinkedHashSet<>();
+      boolean fits;
+      if (west <= east) {
+        fits = addCells(prefixes, precision, west, east);
+      } else {
+        fits = addCells(prefixes, precision, west, 180)
+            && addCells(prefixes, precision, -180, east);
+      }
+      if (fits && prefixes.size() <= MAX_PREFIXES) {
+        return new ArrayList<>(prefixes);
+      }
+    }
+
+    List<String> everything = new ArrayList<>();
+    everything.add("");
+    return everything;
+  }
+
+  /**
+   * Adds the cells at {@code precision} that cover {@code [west, east]} within the viewport's
+   * latitudes. Returns {@code false} without adding anything if that takes too many cells.
+   */
+  private boolean addCells(Set<String> prefixes, int precision, double west, double east) {
+    double height = Geohash.cellHeight(precision);
+    double width = Geohash.cellWidth(precision);
+    long firstRow = (long) Math.floor((south + 90) / height);
+    long lastRow = Math.min((long) Math.floor((north + 90) / height), (long) (180 / height) - 1);
+    long firstColumn = (long) Math.floor((west + 180) / width);
+    long lastColumn = Math.min((long) Math.floor((east + 180) / width), (long) (360 / width) - 1);
+    if ((lastRow - firstRow + 1) * (lastColumn - firstColumn + 1) > MAX_PREFIXES) {
+      return false;
+    }
+
+    for (long row = firstRow; row <= lastRow; row++) {
+      for (long column = firstColumn; column <= lastColumn; column++) {
+        // Naming a cell by the geohash of its center avoids rounding trouble at its edges.
+        double lat = -90 + (row + 0.5) * height;
+        double lng = -180 + (column + 0.5) * width;
+        prefixes.add(Geohash.encode(lat, lng, precision));
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.data.Marker;
+import com.google.sps.data.MarkerJson;
+import com.google.sps.data.MarkerStore;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Whitelist;
+
+/**
+ * Saves many markers at once. The body is a JSON array like the one returned by {@code /markers},
+ * and all of the markers are written in one batch.
+ */
+@WebServlet("/markers/bulk")
+public class BulkMarkerServlet extends HttpServlet {
+
+  private MarkerStore markerStore;
+
+  @Override
+  public void init() {
+    markerStore = MarkerStores.get(getServletContext());
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Marker[] markers;
+    try {
+      markers = MarkerJson.GSON.fromJson(request.getReader(), Marker[].class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid JSON: " + e.getMessage());
+      return;
+    }
+    if (markers == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a JSON array of markers");
+      return;
+    }
+
+    List<Marker> cleanMarkers = new ArrayList<>(markers.length);
+    for (Marker marker : markers) {
+      if (marker == null || marker.getContent() == null) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Every marker needs content");
+        return;
+      }
+      if (Math.abs(marker.getLat()) > 90 || Math.abs(marker.getLng()) > 180) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Marker is off the map");
+        return;
+      }
+      String content = Jsoup.clean(marker.getContent(), Whitelist.none());
+      cleanMarkers.add(new Marker(marker.getLat(), marker.getLng(), content));
+    }
+
+    markerStore.putAll(cleanMarkers);
+    response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+  }
+}
@@ -14,16 +14,14 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.datastore.DatastoreService;
-import com.google.appengine.api.datastore.DatastoreServiceFactory;
-import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.appengine.api.datastore.Query;
 import com.google.sps.data.Marker;
-import com.google.gson.Gson;
+import com.google.sps.data.MarkerJson;
+import com.google.sps.data.MarkerStore;
+import com.google.sps.data.Viewport;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -31,19 +29,34 @@ import javax.servlet.http.HttpServletResponse;
 import org.jsoup.Jsoup;
 import org.jsoup.safety.Whitelist;
 
-/** Handles fetching and saving markers data. */
+/**
+ * Handles fetching and saving markers data. With the {@code north}, {@code south}, {@code east} and
+ * {@code west} parameters, GET only returns the markers inside that box.
+ */
 @WebServlet("/markers")
 public class MarkerServlet extends HttpServlet {
 
+  private MarkerStore markerStore;
+
+  @Override
+  public void init() {
+    markerStore = MarkerStores.get(getServletContext());
+  }
+
   /** Responds with a JSON array containing marker data. */
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    response.setContentType("application/json");
-
-    Collection<Marker> markers = getMarkers();
-    Gson gson = new Gson();
-    String json = gson.toJson(markers);
+    Collection<Marker> markers;
+    try {
+      Viewport viewport = getViewport(request);
+      markers = viewport == null ? markerStore.getAll() : getMarkers(viewport);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
 
+    response.setContentType("application/json");
+    String json = MarkerJson.GSON.toJson(markers);
     response.getWriter().println(json);
   }
 
@@ -55,36 +68,43 @@ public class MarkerServlet extends HttpServlet {
     String content = Jsoup.clean(request.getParameter("content"), Whitelist.none());
 
     Marker marker = new Marker(lat, lng, content);
-    storeMarker(marker);
+    markerStore.putAll(Collections.singletonList(marker));
   }
 
-  /** Fetches markers from Datastore. */
-  private Collection<Marker> getMarkers() {
-    Collection<Marker> markers = new ArrayList<>();
-
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    Query query = new Query("Marker");
-    PreparedQuery results = datastore.prepare(query);
-
-    for (Entity entity : results.asIterable()) {
-      double lat = (double) entity.getProperty("lat");
-      double lng = (double) entity.getProperty("lng");
-      String content = (String) entity.getProperty("content");
-
-      Marker marker = new Marker(lat, lng, content);
-      markers.add(marker);
+  /**
+   * Returns the viewport in the request, or null if there isn't one. Throws
+   * {@link IllegalArgumentException} if it is incomplete or invalid.
+   */
+  private static Viewport getViewport(HttpServletRequest request) {
+    String north = request.getParameter("north");
+    String south = request.getParameter("south");
+    String east = request.getParameter("east");
+    String west = request.getParameter("west");
+    if (north == null && south == null && east == null && west == null) {
+      return null;
     }
-    return markers;
+    if (north == null || south == null || east == null || west == null) {
+      throw new IllegalArgumentException("north, south, east and west go together");
+    }
+    // NumberFormatException is an IllegalArgumentException.
+    return new Viewport(
+        Double.parseDouble(south),
+        Double.parseDouble(west),
+        Double.parseDouble(north),
+        Double.parseDouble(east));
   }
 
-  /** Stores a marker in Datastore. */
-  public void storeMarker(Marker marker) {
-    Entity markerEntity = new Entity("Marker");
-    markerEntity.setProperty("lat", marker.getLat());
-    markerEntity.setProperty("lng", marker.getLng());
-    markerEntity.setProperty("content", marker.getContent());
-
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    datastore.put(markerEntity);
+  /** Fetches the markers inside {@code viewport}, reading only the geohash cells that cover it. */
+  private Collection<Marker> getMarkers(Viewport viewport) {
+    Collection<Marker> markers = new ArrayList<>();
+    for (String prefix : viewport.coveringGeohashes()) {
+      for (Marker marker : markerStore.getByGeohashPrefix(prefix)) {
+        // The cells stick out past the edges of the viewport.
+        if (viewport.contains(marker.getLat(), marker.getLng())) {
+          markers.add(marker);
+        }
+      }
+    }
+    return markers;
   }
 }
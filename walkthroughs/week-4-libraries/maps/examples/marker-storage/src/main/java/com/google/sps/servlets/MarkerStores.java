@@ -0,0 +1,58 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.sps.data.DatastoreMarkerStore;
+import com.google.sps.data.InMemoryMarkerStore;
+import com.google.sps.data.MarkerStore;
+import javax.servlet.ServletContext;
+
+/**
+ * Gives every servlet in the app the same {@link MarkerStore}. Markers are kept in Datastore unless
+ * the {@code markerStore} context parameter is set to {@code memory}, which keeps them in memory so
+ * the app can run without Datastore.
+ */
+public final class MarkerStores {
+  private static final String ATTRIBUTE = MarkerStore.class.getName();
+
+  /** Name of the context parameter that picks the store. */
+  public static final String STORE_PARAMETER = "markerStore";
+
+  private MarkerStores() {}
+
+  /** Returns the store shared by the servlets in {@code context}, creating it on first use. */
+  public static MarkerStore get(ServletContext context) {
+    synchronized (context) {
+      MarkerStore store = (MarkerStore) context.getAttribute(ATTRIBUTE);
+      if (store == null) {
+        store = create(context.getInitParameter(STORE_PARAMETER));
+        context.setAttribute(ATTRIBUTE, store);
+      }
+      return store;
+    }
+  }
+
+  private static MarkerStore create(String type) {
+    if ("memory".equals(type)) {
+      return new InMemoryMarkerStore();
+    }
+    DatastoreMarkerStore store =
+        new DatastoreMarkerStore(DatastoreServiceFactory.getDatastoreService());
+    // Markers saved before geohashes were added would otherwise be missing from every viewport.
+    store.backfillGeohashes();
+    return store;
+  }
+}
@@ -29,16 +29,31 @@ function createMap() {
     createMarkerForEdit(event.latLng.lat(), event.latLng.lng());
   });
 
-  fetchMarkers();
+  // Only the markers in view are loaded, so load them again whenever the map
+  // stops moving.
+  map.addListener('idle', fetchMarkers);
 }
 
-/** Fetches markers from the backend and adds them to the map. */
+/* Markers loaded from the backend that are currently on the map. */
+let displayMarkers = [];
+
+/** Fetches the markers in view from the backend and adds them to the map. */
 function fetchMarkers() {
-  fetch('/markers').then(response => response.json()).then((markers) => {
-    markers.forEach(
-        (marker) => {
-            createMarkerForDisplay(marker.lat, marker.lng, marker.content)});
+  const bounds = map.getBounds();
+  const params = new URLSearchParams({
+    north: bounds.getNorthEast().lat(),
+    south: bounds.getSouthWest().lat(),
+    east: bounds.getNorthEast().lng(),
+    west: bounds.getSouthWest().lng(),
   });
+
+  fetch('/markers?' + params).then(response => response.json())
+      .then((markers) => {
+        displayMarkers.forEach(marker => marker.setMap(null));
+        displayMarkers = markers.map(
+            (marker) => createMarkerForDisplay(
+                marker.lat, marker.lng, marker.content));
+      });
 }
 
 /** Creates a marker that shows a read-only info window when clicked. */
@@ -50,6 +65,7 @@ function createMarkerForDisplay(lat, lng, content) {
   marker.addListener('click', () => {
     infoWindow.open(map, marker);
   });
+  return marker;
 }
 
 /** Sends a marker to the backend for saving. */
@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class GeohashTest {
+  @Test
+  public void knownGeohashes() {
+    Assert.assertEquals("ezs42", Geohash.encode(42.6, -5.6, 5));
+    Assert.assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+  }
+
+  @Test
+  public void corners() {
+    Assert.assertEquals("00000", Geohash.encode(-90, -180, 5));
+    Assert.assertEquals("zzzzz", Geohash.encode(89.9999999, 179.9999999, 5));
+    Assert.assertEquals("", Geohash.encode(0, 0, 0));
+  }
+
+  @Test
+  public void shorterGeohashIsAPrefix() {
+    String full = Geohash.encode(-33.8688, 151.2093, Geohash.MAX_PRECISION);
+    for (int precision = 0; precision < Geohash.MAX_PRECISION; precision++) {
+      Assert.assertEquals(
+          full.substring(0, precision), Geohash.encode(-33.8688, 151.2093, precision));
+    }
+  }
+
+  @Test
+  public void cellSizes() {
+    Assert.assertEquals(180.0 / 4, Geohash.cellHeight(1), 0);
+    Assert.assertEquals(360.0 / 8, Geohash.cellWidth(1), 0);
+    Assert.assertEquals(180.0 / 32, Geohash.cellHeight(2), 0);
+    Assert.assertEquals(360.0 / 32, Geohash.cellWidth(2), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void precisionTooLong() {
+    Geohash.encode(0, 0, Geohash.MAX_PRECISION + 1);
+  }
+}
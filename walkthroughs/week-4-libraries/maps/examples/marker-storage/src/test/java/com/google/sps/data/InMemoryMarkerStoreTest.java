@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class InMemoryMarkerStoreTest {
+  private static List<Marker> randomMarkers(Random random, int count) {
+    List<Marker> markers = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      double lat = -90 + 180 * random.nextDouble();
+      double lng = -180 + 360 * random.nextDouble();
+      markers.add(new Marker(lat, lng, "Marker " + i));
+    }
+    return markers;
+  }
+
+  /** Returns the markers whose geohash starts with {@code prefix}, found by checking every one. */
+  private static List<String> linearScan(List<Marker> markers, String prefix) {
+    List<String> contents = new ArrayList<>();
+    for (Marker marker : markers) {
+      String geohash = Geohash.encode(marker.getLat(), marker.getLng(), Geohash.MAX_PRECISION);
+      if (geohash.startsWith(prefix)) {
+        contents.add(marker.getContent());
+      }
+    }
+    Collections.sort(contents);
+    return contents;
+  }
+
+  private static List<String> contents(List<Marker> markers) {
+    List<String> contents = new ArrayList<>();
+    for (Marker marker : markers) {
+      contents.add(marker.getContent());
+    }
+    Collections.sort(contents);
+    return contents;
+  }
+
+  @Test
+  public void prefixQueryMatchesLinearScan() {
+    Random random = new Random(1);
+    List<Marker> markers = randomMarkers(random, 5000);
+    InMemoryMarkerStore store = new InMemoryMarkerStore();
+    store.putAll(markers);
+
+    for (int i = 0; i < 200; i++) {
+      Marker marker = markers.get(random.nextInt(markers.size()));
+      String geohash = Geohash.encode(marker.getLat(), marker.getLng(), Geohash.MAX_PRECISION);
+      String prefix = geohash.substring(0, random.nextInt(Geohash.MAX_PRECISION + 1));
+      Assert.assertEquals(
+          prefix, linearScan(markers, prefix), contents(store.getByGeohashPrefix(prefix)));
+    }
+  }
+
+  @Test
+  public void emptyPrefixReturnsEverything() {
+    List<Marker> markers = randomMarkers(new Random(2), 100);
+    InMemoryMarkerStore store = new InMemoryMarkerStore();
+    store.putAll(markers);
+
+    Assert.assertEquals(100, store.getByGeohashPrefix("").size());
+    Assert.assertEquals(100, store.getAll().size());
+  }
+
+  @Test
+  public void prefixEndingInLastCharacter() {
+    // "z" is the last geohash character, so these cells end right below the "~" upper bound.
+    InMemoryMarkerStore store = new InMemoryMarkerStore();
+    Marker northEast = new Marker(89.99, 179.99, "north east");
+    Marker nearby = new Marker(89.99, 179.0, "nearby");
+    Marker southWest = new Marker(-89.99, -179.99, "south west");
+    store.putAll(Arrays.asList(northEast, nearby, southWest));
+
+    Assert.assertEquals(
+        Collections.singletonList("north east"),
+        contents(store.getByGeohashPrefix(Geohash.encode(89.99, 179.99, Geohash.MAX_PRECISION))));
+    Assert.assertEquals(
+        Arrays.asList("nearby", "north east"),
+        contents(store.getByGeohashPrefix("zz")));
+    Assert.assertEquals(3, store.getByGeohashPrefix("").size());
+  }
+
+  @Test
+  public void markersAtTheSameSpotAreKept() {
+    InMemoryMarkerStore store = new InMemoryMarkerStore();
+    store.putAll(Arrays.asList(new Marker(1, 2, "a"), new Marker(1, 2, "b")));
+
+    Assert.assertEquals(2, store.getByGeohashPrefix(Geohash.encode(1, 2, 5)).size());
+  }
+
+  @Test
+  public void viewportQueryMatchesLinearScan() {
+    // Reads a viewport the way MarkerServlet does: one prefix query per covering cell.
+    Random random = new Random(3);
+    List<Marker> markers = randomMarkers(random, 20000);
+    InMemoryMarkerStore store = new InMemoryMarkerStore();
+    store.putAll(markers);
+
+    Viewport[] viewports = {
+      new Viewport(-10, -20, 30, 40),
+      new Viewport(40.5, -74.5, 41, -73.5),
+      new Viewport(-50, 150, 10, -150),
+      new Viewport(-90, -180, 90, 180),
+    };
+    for (Viewport viewport : viewports) {
+      List<String> expected = new ArrayList<>();
+      for (Marker marker : markers) {
+        if (viewport.contains(marker.getLat(), marker.getLng())) {
+          expected.add(marker.getContent());
+        }
+      }
+      Collections.sort(expected);
+
+      List<Marker> actual = new ArrayList<>();
+      for (String prefix : viewport.coveringGeohashes()) {
+        for (Marker marker : store.getByGeohashPrefix(prefix)) {
+          if (viewport.contains(marker.getLat(), marker.getLng())) {
+            actual.add(marker);
+          }
+        }
+      }
+      Assert.assertEquals(expected, contents(actual));
+    }
+  }
+}
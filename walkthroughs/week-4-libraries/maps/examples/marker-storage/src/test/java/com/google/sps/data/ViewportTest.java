@@ -0,0 +1,127 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ViewportTest {
+  private static final int POINTS_PER_VIEWPORT = 2000;
+
+  /** Asserts that every point inside {@code viewport} is in one of its covering cells. */
+  private static void assertCovers(Viewport viewport, double south, double west, double north,
+      double east, Random random) {
+    List<String> prefixes = viewport.coveringGeohashes();
+    Assert.assertTrue(prefixes.size() <= Viewport.MAX_PREFIXES);
+
+    double width = west <= east ? east - west : east - west + 360;
+    for (int i = 0; i < POINTS_PER_VIEWPORT; i++) {
+      double lat = south + (north - south) * random.nextDouble();
+      double lng = west + width * random.nextDouble();
+      if (lng >= 180) {
+        lng -= 360;
+      }
+      Assert.assertTrue(viewport.contains(lat, lng));
+      String geohash = Geohash.encode(lat, lng, Geohash.MAX_PRECISION);
+      Assert.assertTrue(
+          lat + "," + lng + " is not covered by " + prefixes, startsWithAny(geohash, prefixes));
+    }
+  }
+
+  private static boolean startsWithAny(String geohash, List<String> prefixes) {
+    for (String prefix : prefixes) {
+      if (geohash.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void assertCovers(
+      double south, double west, double north, double east, Random random) {
+    assertCovers(new Viewport(south, west, north, east), south, west, north, east, random);
+  }
+
+  @Test
+  public void coversSmallViewport() {
+    assertCovers(40.70, -74.02, 40.72, -73.99, new Random(1));
+  }
+
+  @Test
+  public void coversCorners() {
+    Viewport viewport = new Viewport(40.70, -74.02, 40.72, -73.99);
+    List<String> prefixes = viewport.coveringGeohashes();
+
+    for (double lat : new double[] {40.70, 40.72}) {
+      for (double lng : new double[] {-74.02, -73.99}) {
+        Assert.assertTrue(
+            startsWithAny(Geohash.encode(lat, lng, Geohash.MAX_PRECISION), prefixes));
+      }
+    }
+  }
+
+  @Test
+  public void coversRandomViewports() {
+    Random random = new Random(2);
+    for (int i = 0; i < 200; i++) {
+      double south = -90 + 180 * random.nextDouble();
+      double north = south + (90 - south) * Math.pow(random.nextDouble(), 4);
+      double west = -180 + 360 * random.nextDouble();
+      double east = Math.min(180, west + 360 * Math.pow(random.nextDouble(), 4));
+      assertCovers(south, west, north, east, random);
+    }
+  }
+
+  @Test
+  public void coversViewportAcrossTheAntimeridian() {
+    Viewport viewport = new Viewport(-20, 175, -10, -175);
+
+    Assert.assertTrue(viewport.contains(-15, 179));
+    Assert.assertTrue(viewport.contains(-15, -179));
+    Assert.assertFalse(viewport.contains(-15, 0));
+    assertCovers(viewport, -20, 175, -10, -175, new Random(3));
+  }
+
+  @Test
+  public void coversRandomViewportsAcrossTheAntimeridian() {
+    Random random = new Random(4);
+    for (int i = 0; i < 100; i++) {
+      double south = -90 + 170 * random.nextDouble();
+      double north = south + 10 * random.nextDouble();
+      double west = 180 - 20 * random.nextDouble();
+      double east = -180 + 20 * random.nextDouble();
+      assertCovers(south, west, north, east, random);
+    }
+  }
+
+  @Test
+  public void wholeMapIsOnePrefix() {
+    Viewport viewport = new Viewport(-90, -180, 90, 180);
+
+    Assert.assertEquals(1, viewport.coveringGeohashes().size());
+    assertCovers(viewport, -90, -180, 90, 180, new Random(5));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void southOfNorth() {
+    new Viewport(10, 0, -10, 10);
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Groups sightings into the cells of a lat/lng grid, so that a zoomed-out map gets one marker per
+ * cell instead of one per sighting. Each cluster is placed at the average location of its
+ * sightings.
+ */
+public final class SightingClusters {
+  private double[] latSums;
+  private double[] lngSums;
+  private int[] counts;
+  private int size;
+
+  private SightingClusters(int capacity) {
+    latSums = new double[capacity];
+    lngSums = new double[capacity];
+    counts = new int[capacity];
+  }
+
+  /**
+   * Clusters the points of {@code index} at the positions in {@code hits} into square cells that
+   * are {@code cellSize} degrees wide.
+   */
+  public static SightingClusters of(SightingIndex index, int[] hits, double cellSize) {
+    SightingClusters clusters = new SightingClusters(16);
+    Map<Long, Integer> clusterByCell = new HashMap<>();
+    for (int hit : hits) {
+      double lat = index.lat(hit);
+      double lng = index.lng(hit);
+      long row = (long) Math.floor(lat / cellSize);
+      long column = (long) Math.floor(lng / cellSize);
+      long cell = (row << 32) | (column & 0xFFFFFFFFL);
+
+      Integer cluster = clusterByCell.get(cell);
+      if (cluster == null) {
+        cluster = clusters.newCluster();
+        clusterByCell.put(cell, cluster);
+      }
+      clusters.latSums[cluster] += lat;
+      clusters.lngSums[cluster] += lng;
+      clusters.counts[cluster]++;
+    }
+    return clusters;
+  }
+
+  /** Returns the number of clusters. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the average latitude of the sightings in cluster {@code i}. */
+  public double lat(int i) {
+    return latSums[i] / counts[i];
+  }
+
+  /** Returns the average longitude of the sightings in cluster {@code i}. */
+  public double lng(int i) {
+    return lngSums[i] / counts[i];
+  }
+
+  /** Returns the number of sightings in cluster {@code i}. */
+  public int count(int i) {
+    return counts[i];
+  }
+
+  private int newCluster() {
+    if (size == counts.length) {
+      latSums = Arrays.copyOf(latSums, size * 2);
+      lngSums = Arrays.copyOf(lngSums, size * 2);
+      counts = Arrays.copyOf(counts, size * 2);
+    }
+    return size++;
+  }
+}
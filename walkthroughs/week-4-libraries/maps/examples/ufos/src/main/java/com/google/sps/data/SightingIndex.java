@@ -0,0 +1,300 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Arrays;
+
+/**
+ * A read-only spatial index over sighting locations, built once and then queried by bounding box.
+ * The points are sorted along a Hilbert curve so that points that are close on the map are close
+ * in memory. Runs of {@value #NODE_SIZE} points are grouped into leaf boxes, and those boxes into
+ * parent boxes, up to a single root (a packed R-tree). Everything is stored in flat arrays.
+ */
+public final class SightingIndex {
+  /** The number of children under each box. */
+  static final int NODE_SIZE = 16;
+
+  private static final int[] NO_HITS = new int[0];
+
+  // Point coordinates, in Hilbert order.
+  private final double[] lats;
+  private final double[] lngs;
+
+  // Bounding boxes of every node as {minLat, minLng, maxLat, maxLng, ...}, leaves first and the
+  // root last.
+  private final double[] boxes;
+
+  // The index of the first node of each level, plus the total number of nodes at the end. Level 0
+  // holds the leaves.
+  private final int[] levelStarts;
+
+  /**
+   * Builds an index of the points {@code (lats[i], lngs[i])}. The arrays are not kept, so the
+   * caller is free to reuse them.
+   */
+  public SightingIndex(double[] lats, double[] lngs) {
+    this(lats, lngs, checkedSize(lats, lngs));
+  }
+
+  /** Builds an index of the first {@code size} points in {@code lats} and {@code lngs}. */
+  SightingIndex(double[] lats, double[] lngs, int size) {
+    long[] keys = hilbertKeys(lats, lngs, size);
+    sortByHighBits(keys);
+
+    this.lats = new double[size];
+    this.lngs = new double[size];
+    for (int i = 0; i < size; i++) {
+      int original = (int) keys[i];
+      this.lats[i] = lats[original];
+      this.lngs[i] = lngs[original];
+    }
+
+    int[] starts = new int[8];
+    int levels = 0;
+    int nodes = 0;
+    int count = size;
+    do {
+      count = (count + NODE_SIZE - 1) / NODE_SIZE;
+      if (levels + 1 == starts.length) {
+        starts = Arrays.copyOf(starts, starts.length * 2);
+      }
+      starts[levels++] = nodes;
+      nodes += count;
+    } while (count > 1);
+    starts[levels] = nodes;
+    this.levelStarts = Arrays.copyOf(starts, levels + 1);
+
+    this.boxes = new double[nodes * 4];
+    for (int node = 0; node < levelStarts[1]; node++) {
+      int first = node * NODE_SIZE;
+      int last = Math.min(first + NODE_SIZE, size);
+      setBox(node, first, last, true);
+    }
+    for (int level = 1; level < levels; level++) {
+      for (int node = levelStarts[level]; node < levelStarts[level + 1]; node++) {
+        int first = levelStarts[level - 1] + (node - levelStarts[level]) * NODE_SIZE;
+        int last = Math.min(first + NODE_SIZE, levelStarts[level]);
+        setBox(node, first, last, false);
+      }
+    }
+  }
+
+  private static int checkedSize(double[] lats, double[] lngs) {
+    if (lats.length != lngs.length) {
+      throw new IllegalArgumentException("lats and lngs must be the same length");
+    }
+    return lats.length;
+  }
+
+  /** Returns the number of points in the index. */
+  public int size() {
+    return lats.length;
+  }
+
+  /** Returns the latitude of point {@code i}. */
+  public double lat(int i) {
+    return lats[i];
+  }
+
+  /** Returns the longitude of point {@code i}. */
+  public double lng(int i) {
+    return lngs[i];
+  }
+
+  /**
+   * Returns the positions of the points inside the given box, edges included, in Hilbert order. A
+   * box with {@code west > east} crosses the antimeridian and wraps around.
+   */
+  public int[] search(double south, double west, double north, double east) {
+    if (size() == 0 || south > north) {
+      return NO_HITS;
+    }
+
+    Hits hits = new Hits();
+    if (west <= east) {
+      search(south, west, north, east, hits);
+    } else {
+      search(south, west, north, 180, hits);
+      search(south, -180, north, east, hits);
+    }
+    return Arrays.copyOf(hits.positions, hits.size);
+  }
+
+  private void search(double south, double west, double north, double east, Hits hits) {
+    int[] stack = new int[levelStarts.length * NODE_SIZE * 2];
+    int top = 0;
+    stack[top++] = levelStarts[levelStarts.length - 1] - 1;
+    stack[top++] = levelStarts.length - 2;
+
+    while (top > 0) {
+      int level = stack[--top];
+      int node = stack[--top];
+      int box = node * 4;
+      if (boxes[box] > north
+          || boxes[box + 1] > east
+          || boxes[box + 2] < south
+          || boxes[box + 3] < west) {
+        continue;
+      }
+
+      if (level == 0) {
+        int first = node * NODE_SIZE;
+        int last = Math.min(first + NODE_SIZE, size());
+        for (int i = first; i < last; i++) {
+          if (lats[i] >= south && lats[i] <= north && lngs[i] >= west && lngs[i] <= east) {
+            hits.add(i);
+          }
+        }
+      } else {
+        int first = levelStarts[level - 1] + (node - levelStarts[level]) * NODE_SIZE;
+        int last = Math.min(first + NODE_SIZE, levelStarts[level]);
+        // Push in reverse so that children are visited in Hilbert order.
+        for (int child = last - 1; child >= first; child--) {
+          stack[top++] = child;
+          stack[top++] = level - 1;
+        }
+      }
+    }
+  }
+
+  /** Sets the box of {@code node} to cover points or child nodes {@code [first, last)}. */
+  private void setBox(int node, int first, int last, boolean points) {
+    double minLat = Double.POSITIVE_INFINITY;
+    double minLng = Double.POSITIVE_INFINITY;
+    double maxLat = Double.NEGATIVE_INFINITY;
+    double maxLng = Double.NEGATIVE_INFINITY;
+    for (int i = first; i < last; i++) {
+      if (points) {
+        minLat = Math.min(minLat, lats[i]);
+        minLng = Math.min(minLng, lngs[i]);
+        maxLat = Math.max(maxLat, lats[i]);
+        maxLng = Math.max(maxLng, lngs[i]);
+      } else {
+        minLat = Math.min(minLat, boxes[i * 4]);
+        minLng = Math.min(minLng, boxes[i * 4 + 1]);
+        maxLat = Math.max(maxLat, boxes[i * 4 + 2]);
+        maxLng = Math.max(maxLng, boxes[i * 4 + 3]);
+      }
+    }
+    boxes[node * 4] = minLat;
+    boxes[node * 4 + 1] = minLng;
+    boxes[node * 4 + 2] = maxLat;
+    boxes[node * 4 + 3] = maxLng;
+  }
+
+  /**
+   * Returns the Hilbert value of each point packed above its position, so that sorting the keys
+   * sorts the positions along the curve.
+   */
+  private static long[] hilbertKeys(double[] lats, double[] lngs, int size) {
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = (hilbert(lats[i], lngs[i]) << 32) | i;
+    }
+    return keys;
+  }
+
+  /**
+   * Sorts {@code keys} by their upper 32 bits with two passes of a 16-bit radix sort, which is
+   * several times faster than a comparison sort for millions of points. The lower bits are
+   * distinct, so the order of keys with the same upper bits doesn't matter.
+   */
+  private static void sortByHighBits(long[] keys) {
+    long[] buffer = new long[keys.length];
+    int[] counts = new int[1 << 16];
+    for (int shift = 32; shift < 64; shift += 16) {
+      Arrays.fill(counts, 0);
+      for (long key : keys) {
+        counts[(int) (key >>> shift) & 0xFFFF]++;
+      }
+      int total = 0;
+      for (int digit = 0; digit < counts.length; digit++) {
+        int count = counts[digit];
+        counts[digit] = total;
+        total += count;
+      }
+      for (long key : keys) {
+        buffer[counts[(int) (key >>> shift) & 0xFFFF]++] = key;
+      }
+      // The second pass copies back, so the sorted keys end up in {@code keys}.
+      long[] swap = keys;
+      keys = buffer;
+      buffer = swap;
+    }
+  }
+
+  /**
+   * Returns the position of a point along a Hilbert curve over a 65536 x 65536 grid. This is the
+   * branch-free form of the usual bit-by-bit walk down the curve: each round combines the
+   * rotations of twice as many levels, which keeps it fast on points in random order.
+   */
+  static long hilbert(double lat, double lng) {
+    int x = quantize(lng, -180, 180);
+    int y = quantize(lat, -90, 90);
+
+    int a = x ^ y;
+    int b = 0xFFFF ^ a;
+    int c = 0xFFFF ^ (x | y);
+    int d = x & (y ^ 0xFFFF);
+    int rotateA = a | (b >>> 1);
+    int rotateB = (a >>> 1) ^ a;
+    int rotateC = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+    int rotateD = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+    for (int shift = 2; shift <= 8; shift <<= 1) {
+      a = rotateA;
+      b = rotateB;
+      c = rotateC;
+      d = rotateD;
+      rotateA = (a & (a >>> shift)) ^ (b & (b >>> shift));
+      rotateB = (a & (b >>> shift)) ^ (b & ((a ^ b) >>> shift));
+      rotateC ^= (a & (c >>> shift)) ^ (b & (d >>> shift));
+      rotateD ^= (b & (c >>> shift)) ^ ((a ^ b) & (d >>> shift));
+    }
+
+    a = rotateC ^ (rotateC >>> 1);
+    b = rotateD ^ (rotateD >>> 1);
+    int low = x ^ y;
+    int high = b | (0xFFFF ^ (low | a));
+    return ((spreadBits(high) << 1) | spreadBits(low)) & 0xFFFFFFFFL;
+  }
+
+  /** Moves bit {@code i} of a 16-bit value to bit {@code 2 * i}. */
+  private static int spreadBits(int value) {
+    value = (value | (value << 8)) & 0x00FF00FF;
+    value = (value | (value << 4)) & 0x0F0F0F0F;
+    value = (value | (value << 2)) & 0x33333333;
+    value = (value | (value << 1)) & 0x55555555;
+    return value;
+  }
+
+  private static int quantize(double value, double min, double max) {
+    double scaled = (value - min) / (max - min) * 65535;
+    return (int) Math.max(0, Math.min(65535, scaled));
+  }
+
+  /** A growable list of point positions. */
+  private static final class Hits {
+    int[] positions = new int[64];
+    int size;
+
+    void add(int position) {
+      if (size == positions.length) {
+        positions = Arrays.copyOf(positions, size * 2);
+      }
+      positions[size++] = position;
+    }
+  }
+}
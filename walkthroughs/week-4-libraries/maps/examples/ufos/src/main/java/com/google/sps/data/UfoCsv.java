@@ -0,0 +1,213 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads a CSV file of {@code lat,lng} rows straight into a {@link SightingIndex}. The file is read
+ * as bytes and the numbers are parsed in place, so no strings or objects are created per row. Any
+ * columns after the second are ignored. Fields may be quoted. A row that isn't {@code lat,lng}
+ * fails the whole read with an {@link IOException} naming its line.
+ */
+public final class UfoCsv {
+  // Powers of ten that a double holds exactly.
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  // Every integer up to 2^53 is exactly representable as a double.
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  private final byte[] data;
+  private int position;
+  private int line = 1;
+
+  private UfoCsv(byte[] data) {
+    this.data = data;
+  }
+
+  /** Reads every row of {@code in} and indexes it. Does not close {@code in}. */
+  public static SightingIndex read(InputStream in) throws IOException {
+    return new UfoCsv(readAll(in)).parse();
+  }
+
+  private SightingIndex parse() throws IOException {
+    // Rows in this file are about 25 bytes long, which is a good first guess at the row count.
+    int capacity = Math.max(16, data.length / 24);
+    double[] lats = new double[capacity];
+    double[] lngs = new double[capacity];
+    int size = 0;
+
+    while (position < data.length) {
+      if (data[position] == '\n' || data[position] == '\r') {
+        skipLineEnd();
+        continue;
+      }
+
+      double lat = nextDouble();
+      if (position == data.length || data[position] != ',') {
+        throw new IOException("Expected lat,lng on line " + line);
+      }
+      position++;
+      double lng = nextDouble();
+      skipRestOfLine();
+
+      if (size == lats.length) {
+        lats = Arrays.copyOf(lats, size * 2);
+        lngs = Arrays.copyOf(lngs, size * 2);
+      }
+      lats[size] = lat;
+      lngs[size] = lng;
+      size++;
+    }
+    return new SightingIndex(lats, lngs, size);
+  }
+
+  /**
+   * Parses the number that starts at the current position and stops at the comma or line end after
+   * it. The number may be wrapped in double quotes. Plain decimals with up to 15 or so digits,
+   * which is every row in practice, are converted with a single exact division, which rounds the
+   * same way {@link Double#parseDouble} does. Anything else falls back to
+   * {@link Double#parseDouble}.
+   */
+  private double nextDouble() throws IOException {
+    boolean quoted = atQuote();
+    if (quoted) {
+      position++;
+    }
+    int start = position;
+    boolean negative = false;
+    if (position < data.length && (data[position] == '-' || data[position] == '+')) {
+      negative = data[position] == '-';
+      position++;
+    }
+
+    long mantissa = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean seenPoint = false;
+    boolean exact = true;
+    while (position < data.length) {
+      byte b = data[position];
+      if (b >= '0' && b <= '9') {
+        if (mantissa < MAX_EXACT_MANTISSA / 10) {
+          mantissa = mantissa * 10 + (b - '0');
+          if (seenPoint) {
+            scale++;
+          }
+        } else {
+          exact = false;
+        }
+        digits++;
+      } else if (b == '.' && !seenPoint) {
+        seenPoint = true;
+      } else {
+        break;
+      }
+      position++;
+    }
+
+    boolean atNumberEnd = quoted ? atQuote() : atFieldEnd();
+    double value;
+    if (exact && digits > 0 && scale < POWERS_OF_TEN.length && atNumberEnd) {
+      value = mantissa / POWERS_OF_TEN[scale];
+      if (negative) {
+        value = -value;
+      }
+    } else {
+      // Rare cases like exponents or very long numbers.
+      while (position < data.length && (quoted ? !atQuote() : !atFieldEnd())) {
+        position++;
+      }
+      String text = new String(data, start, position - start, StandardCharsets.US_ASCII).trim();
+      try {
+        value = Double.parseDouble(text);
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid number on line " + line + ": " + text, e);
+      }
+    }
+
+    if (quoted) {
+      if (!atQuote()) {
+        throw new IOException("Unterminated quote on line " + line);
+      }
+      position++;
+      if (!atFieldEnd()) {
+        throw new IOException("Expected a comma after the closing quote on line " + line);
+      }
+    }
+    return value;
+  }
+
+  private boolean atQuote() {
+    return position < data.length && data[position] == '"';
+  }
+
+  private boolean atFieldEnd() {
+    if (position == data.length) {
+      return true;
+    }
+    byte b = data[position];
+    return b == ',' || b == '\n' || b == '\r';
+  }
+
+  /** Skips the ignored columns, which may be quoted and hold commas or line breaks. */
+  private void skipRestOfLine() {
+    boolean inQuotes = false;
+    while (position < data.length) {
+      byte b = data[position];
+      if (b == '"') {
+        // An escaped quote ("") flips this twice, so it stays right.
+        inQuotes = !inQuotes;
+      } else if (b == '\n' || b == '\r') {
+        if (!inQuotes) {
+          break;
+        }
+        if (b == '\n') {
+          line++;
+        }
+      }
+      position++;
+    }
+    skipLineEnd();
+  }
+
+  /** Skips one line ending, which may be \n, \r or \r\n. */
+  private void skipLineEnd() {
+    if (position < data.length && data[position] == '\r') {
+      position++;
+    }
+    if (position < data.length && data[position] == '\n') {
+      position++;
+    }
+    line++;
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+    byte[] buffer = new byte[1 << 16];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      bytes.write(buffer, 0, read);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/** JSON codec for UFO data. */
+public final class UfoJson {
+  /** Reads and writes a {@link UfoSighting} as {@code {"lat": ..., "lng": ...}}. */
+  public static final TypeAdapter<UfoSighting> UFO_SIGHTING = new TypeAdapter<UfoSighting>() {
+    @Override
+    public void write(JsonWriter out, UfoSighting sighting) throws IOException {
+      if (sighting == null) {
+        out.nullValue();
+        return;
+      }
+      writeSighting(out, sighting.getLat(), sighting.getLng());
+    }
+
+    @Override
+    public UfoSighting read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      double lat = 0;
+      double lng = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "lat":
+            lat = in.nextDouble();
+            break;
+          case "lng":
+            lng = in.nextDouble();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new UfoSighting(lat, lng);
+    }
+  };
+
+  /** A Gson instance that uses the adapter above. */
+  public static final Gson GSON =
+      new GsonBuilder().registerTypeAdapter(UfoSighting.class, UFO_SIGHTING).create();
+
+  /** Writes a sighting as {@code {"lat": ..., "lng": ...}} without creating a {@link UfoSighting}. */
+  public static void writeSighting(JsonWriter out, double lat, double lng) throws IOException {
+    out.beginObject();
+    out.name("lat").value(lat);
+    out.name("lng").value(lng);
+    out.endObject();
+  }
+
+  /** Writes every sighting in {@code index} as a JSON array. */
+  public static void writeSightings(JsonWriter out, SightingIndex index) throws IOException {
+    out.beginArray();
+    for (int i = 0; i < index.size(); i++) {
+      writeSighting(out, index.lat(i), index.lng(i));
+    }
+    out.endArray();
+  }
+
+  private UfoJson() {}
+}
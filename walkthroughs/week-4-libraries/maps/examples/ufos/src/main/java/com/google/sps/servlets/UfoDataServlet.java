@@ -14,45 +14,126 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.data.UfoSighting;
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.data.SightingClusters;
+import com.google.sps.data.SightingIndex;
+import com.google.sps.data.UfoCsv;
+import com.google.sps.data.UfoJson;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Scanner;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-/** Returns UFO data as a JSON array, e.g. [{"lat": 38.4404675, "lng": -122.7144313}] */
+/**
+ * Returns UFO data as a JSON array, e.g. [{"lat": 38.4404675, "lng": -122.7144313}]
+ *
+ * <p>With the {@code north}, {@code south}, {@code east}, {@code west} and {@code zoom} parameters
+ * only the sightings inside that box are returned. Below zoom level {@value #MAX_CLUSTER_ZOOM}
+ * nearby sightings are grouped, e.g. {"lat": 38.4, "lng": -122.7, "count": 12}, so the response
+ * stays small no matter how many sightings are in view.
+ */
 @WebServlet("/ufo-data")
 public class UfoDataServlet extends HttpServlet {
 
-  private Collection<UfoSighting> ufoSightings;
+  /** The first zoom level where every sighting is sent on its own. */
+  static final int MAX_CLUSTER_ZOOM = 12;
 
-  @Override
-  public void init() {
-    ufoSightings = new ArrayList<>();
+  // The sightings, stored as columns of coordinates inside the index.
+  private SightingIndex index;
 
-    Scanner scanner = new Scanner(getServletContext().getResourceAsStream("/WEB-INF/ufo-data.csv"));
-    while (scanner.hasNextLine()) {
-      String line = scanner.nextLine();
-      String[] cells = line.split(",");
+  // The data never changes after init(), so it is only converted to JSON once.
+  private PrecomputedResponse ufoJson;
 
-      double lat = Double.parseDouble(cells[0]);
-      double lng = Double.parseDouble(cells[1]);
+  @Override
+  public void init() throws ServletException {
+    try (InputStream csv = getServletContext().getResourceAsStream("/WEB-INF/ufo-data.csv")) {
+      index = UfoCsv.read(csv);
+    } catch (IOException e) {
+      throw new ServletException("Could not read UFO data", e);
+    }
 
-      ufoSightings.add(new UfoSighting(lat, lng));
+    ByteArrayOutputStream json = new ByteArrayOutputStream(index.size() * 40);
+    try (JsonWriter writer =
+        UfoJson.GSON.newJsonWriter(new OutputStreamWriter(json, StandardCharsets.UTF_8))) {
+      UfoJson.writeSightings(writer, index);
+    } catch (IOException e) {
+      throw new ServletException("Could not serialize UFO data", e);
     }
-    scanner.close();
+    ufoJson = PrecomputedResponse.of("application/json", json.toByteArray());
   }
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String[] names = {"north", "south", "east", "west", "zoom"};
+    String[] values = new String[names.length];
+    boolean anyPresent = false;
+    boolean allPresent = true;
+    for (int i = 0; i < names.length; i++) {
+      values[i] = request.getParameter(names[i]);
+      anyPresent |= values[i] != null;
+      allPresent &= values[i] != null;
+    }
+    if (!anyPresent) {
+      ufoJson.send(request, response);
+      return;
+    }
+    if (!allPresent) {
+      response.sendError(
+          HttpServletResponse.SC_BAD_REQUEST, "north, south, east, west and zoom go together");
+      return;
+    }
+
+    double north;
+    double south;
+    double east;
+    double west;
+    int zoom;
+    try {
+      north = Double.parseDouble(values[0]);
+      south = Double.parseDouble(values[1]);
+      east = Double.parseDouble(values[2]);
+      west = Double.parseDouble(values[3]);
+      zoom = Integer.parseInt(values[4]);
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid viewport: " + e.getMessage());
+      return;
+    }
+
+    int[] hits = index.search(south, west, north, east);
+
     response.setContentType("application/json");
-    Gson gson = new Gson();
-    String json = gson.toJson(ufoSightings);
-    response.getWriter().println(json);
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter writer = UfoJson.GSON.newJsonWriter(response.getWriter());
+    writer.beginArray();
+    if (zoom < MAX_CLUSTER_ZOOM) {
+      SightingClusters clusters = SightingClusters.of(index, hits, cellSize(zoom));
+      for (int i = 0; i < clusters.size(); i++) {
+        writer.beginObject();
+        writer.name("lat").value(clusters.lat(i));
+        writer.name("lng").value(clusters.lng(i));
+        writer.name("count").value(clusters.count(i));
+        writer.endObject();
+      }
+    } else {
+      for (int hit : hits) {
+        UfoJson.writeSighting(writer, index.lat(hit), index.lng(hit));
+      }
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  /**
+   * Returns the width of a cluster cell in degrees at {@code zoom}. A 256 pixel map tile spans
+   * 360 / 2^zoom degrees, so this makes cells about 64 pixels wide.
+   */
+  static double cellSize(int zoom) {
+    return 90 / Math.pow(2, Math.max(zoom, 0));
   }
 }
@@ -12,16 +12,41 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 
-/** Fetches UFO sightings data from the server and displays it in a map. */
+/**
+ * Creates a map and shows the UFO sightings in view. The sightings are fetched
+ * again whenever the map stops moving, so only the visible ones are loaded.
+ */
 function createUfoSightingsMap() {
-  fetch('/ufo-data').then(response => response.json()).then((ufoSightings) => {
-    const map = new google.maps.Map(
-        document.getElementById('map'),
-        {center: {lat: 35.78613674, lng: -119.4491591}, zoom: 7});
+  const map = new google.maps.Map(
+      document.getElementById('map'),
+      {center: {lat: 35.78613674, lng: -119.4491591}, zoom: 7});
 
-    ufoSightings.forEach((ufoSighting) => {
-      new google.maps.Marker(
-          {position: {lat: ufoSighting.lat, lng: ufoSighting.lng}, map: map});
+  let markers = [];
+  map.addListener('idle', () => {
+    const bounds = map.getBounds();
+    const northEast = bounds.getNorthEast();
+    const southWest = bounds.getSouthWest();
+    const params = new URLSearchParams({
+      north: northEast.lat(),
+      south: southWest.lat(),
+      east: northEast.lng(),
+      west: southWest.lng(),
+      zoom: map.getZoom(),
     });
+
+    fetch('/ufo-data?' + params).then(response => response.json())
+        .then((ufoSightings) => {
+          markers.forEach(marker => marker.setMap(null));
+          markers = ufoSightings.map((ufoSighting) => {
+            // Clusters of sightings are labeled with how many they contain.
+            const label = ufoSighting.count > 1 ?
+                String(ufoSighting.count) : undefined;
+            return new google.maps.Marker({
+              position: {lat: ufoSighting.lat, lng: ufoSighting.lng},
+              label: label,
+              map: map,
+            });
+          });
+        });
   });
 }
@@ -0,0 +1,187 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Checks {@link SightingIndex#search} against a linear scan over the same points. */
+@RunWith(JUnit4.class)
+public final class SightingIndexTest {
+  private static final int[] SIZES = {0, 1, 2, 15, 16, 17, 255, 256, 257, 4097, 20000};
+
+  @Test
+  public void keepsEveryPoint() {
+    Random random = new Random(1);
+    for (int size : SIZES) {
+      double[] lats = randomLats(random, size);
+      double[] lngs = randomLngs(random, size);
+      SightingIndex index = new SightingIndex(lats, lngs);
+
+      Assert.assertEquals(size, index.size());
+      List<String> indexed = new ArrayList<>();
+      for (int i = 0; i < index.size(); i++) {
+        indexed.add(point(index.lat(i), index.lng(i)));
+      }
+      Assert.assertEquals(sorted(allPoints(lats, lngs)), sorted(indexed));
+    }
+  }
+
+  @Test
+  public void searchMatchesLinearScan() {
+    Random random = new Random(2);
+    for (int size : SIZES) {
+      double[] lats = randomLats(random, size);
+      double[] lngs = randomLngs(random, size);
+      SightingIndex index = new SightingIndex(lats, lngs);
+
+      for (int query = 0; query < 200; query++) {
+        double south = -90 + random.nextDouble() * 180;
+        double north = south + random.nextDouble() * (90 - south);
+        double west = -180 + random.nextDouble() * 360;
+        double east = west + random.nextDouble() * (180 - west);
+        assertSearchMatches(index, lats, lngs, south, west, north, east);
+      }
+    }
+  }
+
+  @Test
+  public void searchAcrossAntimeridianMatchesLinearScan() {
+    Random random = new Random(3);
+    for (int size : SIZES) {
+      double[] lats = randomLats(random, size);
+      double[] lngs = randomLngs(random, size);
+      SightingIndex index = new SightingIndex(lats, lngs);
+
+      for (int query = 0; query < 200; query++) {
+        double south = -90 + random.nextDouble() * 180;
+        double north = south + random.nextDouble() * (90 - south);
+        // west > east, so the box wraps from west to 180 and on from -180 to east.
+        double west = random.nextDouble() * 180;
+        double east = -180 + random.nextDouble() * 180;
+        assertSearchMatches(index, lats, lngs, south, west, north, east);
+      }
+    }
+  }
+
+  @Test
+  public void searchIncludesPointsOnTheEdges() {
+    double[] lats = {10, 20, 10, 20, 15, -90, 90, 0, 0};
+    double[] lngs = {30, 40, 40, 30, 35, 0, 0, -180, 180};
+    SightingIndex index = new SightingIndex(lats, lngs);
+
+    assertSearchMatches(index, lats, lngs, 10, 30, 20, 40);
+    assertSearchMatches(index, lats, lngs, -90, -180, 90, 180);
+    assertSearchMatches(index, lats, lngs, -1, 170, 1, -170);
+    Assert.assertEquals(5, index.search(10, 30, 20, 40).length);
+    Assert.assertEquals(9, index.search(-90, -180, 90, 180).length);
+  }
+
+  @Test
+  public void searchFindsEveryCopyOfDuplicatePoints() {
+    int size = 1000;
+    double[] lats = new double[size];
+    double[] lngs = new double[size];
+    for (int i = 0; i < size; i++) {
+      lats[i] = i % 2 == 0 ? 40.7 : -33.9;
+      lngs[i] = i % 2 == 0 ? -74.0 : 151.2;
+    }
+    SightingIndex index = new SightingIndex(lats, lngs);
+
+    Assert.assertEquals(size / 2, index.search(40, -75, 41, -73).length);
+    assertSearchMatches(index, lats, lngs, -90, -180, 90, 180);
+  }
+
+  @Test
+  public void emptyOrInvertedBoxFindsNothing() {
+    SightingIndex index = new SightingIndex(new double[] {1, 2}, new double[] {3, 4});
+
+    SightingIndex empty = new SightingIndex(new double[0], new double[0]);
+
+    Assert.assertEquals(0, index.search(10, -180, -10, 180).length);
+    Assert.assertEquals(0, empty.search(-90, -180, 90, 180).length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsArraysOfDifferentLengths() {
+    new SightingIndex(new double[2], new double[3]);
+  }
+
+  private static void assertSearchMatches(SightingIndex index, double[] lats, double[] lngs,
+      double south, double west, double north, double east) {
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < lats.length; i++) {
+      boolean inLng = west <= east
+          ? lngs[i] >= west && lngs[i] <= east
+          : lngs[i] >= west || lngs[i] <= east;
+      if (lats[i] >= south && lats[i] <= north && inLng) {
+        expected.add(point(lats[i], lngs[i]));
+      }
+    }
+
+    List<String> actual = new ArrayList<>();
+    for (int hit : index.search(south, west, north, east)) {
+      actual.add(point(index.lat(hit), index.lng(hit)));
+    }
+    String box = "box " + south + "," + west + " to " + north + "," + east;
+    Assert.assertEquals(box, sorted(expected), sorted(actual));
+  }
+
+  // Sightings cluster in a few places, like the real data, with some spread over the whole map.
+  private static double[] randomLats(Random random, int size) {
+    double[] lats = new double[size];
+    for (int i = 0; i < size; i++) {
+      lats[i] = i % 4 == 0
+          ? -90 + random.nextDouble() * 180
+          : 35 + random.nextGaussian() * 5;
+      lats[i] = Math.max(-90, Math.min(90, lats[i]));
+    }
+    return lats;
+  }
+
+  private static double[] randomLngs(Random random, int size) {
+    double[] lngs = new double[size];
+    for (int i = 0; i < size; i++) {
+      lngs[i] = i % 4 == 0
+          ? -180 + random.nextDouble() * 360
+          : -100 + random.nextGaussian() * 20;
+      lngs[i] = Math.max(-180, Math.min(180, lngs[i]));
+    }
+    return lngs;
+  }
+
+  private static List<String> allPoints(double[] lats, double[] lngs) {
+    List<String> points = new ArrayList<>();
+    for (int i = 0; i < lats.length; i++) {
+      points.add(point(lats[i], lngs[i]));
+    }
+    return points;
+  }
+
+  private static String point(double lat, double lng) {
+    return lat + "," + lng;
+  }
+
+  private static List<String> sorted(List<String> points) {
+    Collections.sort(points);
+    return points;
+  }
+}
@@ -0,0 +1,222 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Checks {@link UfoCsv} against a plain CSV split of the same text, with each field parsed by
+ * {@link Double#parseDouble}. Numbers are compared bit for bit.
+ */
+@RunWith(JUnit4.class)
+public final class UfoCsvTest {
+  private static final String[] LINE_ENDINGS = {"\n", "\r\n", "\r"};
+
+  @Test
+  public void randomRowsMatchParseDouble() throws IOException {
+    Random random = new Random(1);
+    StringBuilder csv = new StringBuilder();
+    for (int row = 0; row < 20000; row++) {
+      csv.append(randomField(random)).append(',').append(randomField(random));
+      if (random.nextInt(4) == 0) {
+        csv.append(",\"Described as \"\"bright\"\", moving fast\",").append(row);
+      }
+      csv.append(LINE_ENDINGS[random.nextInt(LINE_ENDINGS.length)]);
+    }
+
+    assertMatchesReference(csv.toString());
+  }
+
+  @Test
+  public void trickyNumbersMatchParseDouble() throws IOException {
+    String[] numbers = {
+      "0", "-0", "+0", "-0.0", "0.1", "0.3", "0.30000000000000004", ".5", "5.", "-.25",
+      "66.8982057", "-162.597762", "90", "-180.0000000", "1e2", "1E-3", "-2.5e+1",
+      "9007199254740993", "123456789.123456789", "0.00000000000000000000000123",
+      "4.9e-324", "1.7976931348623157e308", "12345678901234567890123", " 42.5 "
+    };
+    for (String number : numbers) {
+      SightingIndex index = read(number + ",0\n");
+      Assert.assertEquals(number, 1, index.size());
+      Assert.assertEquals(number, bits(Double.parseDouble(number.trim())), bits(index.lat(0)));
+    }
+  }
+
+  @Test
+  public void readsQuotedFields() throws IOException {
+    String csv = "\"12.5\",\"-7.25\"\n"
+        + "3,4,\"has, a comma\"\n"
+        + "5,6,\"spans\nlines and has \"\"quotes\"\"\"\n"
+        + "\"-1e1\",8";
+
+    assertMatchesReference(csv);
+    Assert.assertEquals(4, read(csv).size());
+  }
+
+  @Test
+  public void skipsBlankLines() throws IOException {
+    String csv = "\n1,2\r\n\r\n3,4\n\n";
+
+    assertMatchesReference(csv);
+    Assert.assertEquals(2, read(csv).size());
+  }
+
+  @Test
+  public void emptyInputHasNoSightings() throws IOException {
+    Assert.assertEquals(0, read("").size());
+  }
+
+  @Test
+  public void badRowsFailWithTheirLineNumber() {
+    String[] badRows = {
+      "abc,1", "1.2.3,4", "5", "5,", ",5", "--1,2", "1e,2", ".,1", "\"5,6", "\"5\"x,6", "1,\"2"
+    };
+    for (String badRow : badRows) {
+      String csv = "1,2\n3,4\n" + badRow + "\n5,6\n";
+      try {
+        read(csv);
+        Assert.fail("Expected an IOException for " + badRow);
+      } catch (IOException e) {
+        Assert.assertTrue(badRow + ": " + e.getMessage(), e.getMessage().contains("line 3"));
+      }
+    }
+  }
+
+  private static void assertMatchesReference(String csv) throws IOException {
+    List<String> expected = new ArrayList<>();
+    for (List<String> row : splitCsv(csv)) {
+      double lat = Double.parseDouble(row.get(0).trim());
+      double lng = Double.parseDouble(row.get(1).trim());
+      expected.add(point(lat, lng));
+    }
+
+    SightingIndex index = read(csv);
+    List<String> actual = new ArrayList<>();
+    for (int i = 0; i < index.size(); i++) {
+      actual.add(point(index.lat(i), index.lng(i)));
+    }
+
+    // The index stores the points in its own order, so compare them as sorted lists.
+    Collections.sort(expected);
+    Collections.sort(actual);
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** A plain CSV splitter: quoted fields, "" escapes and any line ending. Skips blank lines. */
+  private static List<List<String>> splitCsv(String csv) {
+    List<List<String>> rows = new ArrayList<>();
+    List<String> row = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean inQuotes = false;
+    for (int i = 0; i < csv.length(); i++) {
+      char c = csv.charAt(i);
+      if (inQuotes) {
+        if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          inQuotes = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        inQuotes = true;
+      } else if (c == ',') {
+        row.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\n' || c == '\r') {
+        if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+          i++;
+        }
+        endRow(rows, row, field);
+        row = new ArrayList<>();
+      } else {
+        field.append(c);
+      }
+    }
+    endRow(rows, row, field);
+    return rows;
+  }
+
+  private static void endRow(List<List<String>> rows, List<String> row, StringBuilder field) {
+    if (!row.isEmpty() || field.length() > 0) {
+      row.add(field.toString());
+      rows.add(row);
+    }
+    field.setLength(0);
+  }
+
+  /** Returns a random number in one of the forms a CSV export might use, sometimes quoted. */
+  private static String randomField(Random random) {
+    StringBuilder number = new StringBuilder();
+    int sign = random.nextInt(4);
+    if (sign == 0) {
+      number.append('-');
+    } else if (sign == 1) {
+      number.append('+');
+    }
+
+    int integerDigits = random.nextInt(5) == 0 ? random.nextInt(21) : 1 + random.nextInt(3);
+    int fractionDigits = random.nextInt(5) == 0 ? random.nextInt(21) : random.nextInt(9);
+    if (integerDigits == 0 && fractionDigits == 0) {
+      integerDigits = 1;
+    }
+    appendDigits(random, number, integerDigits);
+    if (fractionDigits > 0 || random.nextInt(10) == 0) {
+      number.append('.');
+      appendDigits(random, number, fractionDigits);
+    }
+    if (random.nextInt(10) == 0) {
+      number.append(random.nextBoolean() ? 'e' : 'E').append(random.nextInt(41) - 20);
+    }
+
+    switch (random.nextInt(10)) {
+      case 0:
+        return "\"" + number + "\"";
+      case 1:
+        return " " + number + " ";
+      default:
+        return number.toString();
+    }
+  }
+
+  private static void appendDigits(Random random, StringBuilder number, int count) {
+    for (int i = 0; i < count; i++) {
+      number.append((char) ('0' + random.nextInt(10)));
+    }
+  }
+
+  private static SightingIndex read(String csv) throws IOException {
+    return UfoCsv.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  private static String point(double lat, double lng) {
+    return bits(lat) + "," + bits(lng);
+  }
+
+  private static String bits(double value) {
+    return Long.toHexString(Double.doubleToRawLongBits(value));
+  }
+}
@@ -0,0 +1,104 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds synthetic calendars and meeting requests for benchmarks. The same seed always produces the
+ * same calendar, so runs can be compared with each other.
+ */
+public final class CalendarGenerator {
+  private static final int[] EVENT_DURATIONS = {15, 30, 30, 30, 45, 60, 60, 90, 120};
+
+  private final int eventsPerDay;
+  private final int attendeesPerEvent;
+  private final double optionalAttendeeRatio;
+  private final String[] people;
+  private final Random random;
+
+  /**
+   * Creates a generator.
+   *
+   * @param eventsPerDay The number of events on the calendar.
+   * @param attendeesPerEvent The number of people going to each event.
+   * @param attendeePoolSize The number of different people on the calendar.
+   * @param optionalAttendeeRatio The fraction (0 to 1) of a meeting's invitees that are optional.
+   * @param seed The seed for the random number generator.
+   */
+  public CalendarGenerator(int eventsPerDay, int attendeesPerEvent, int attendeePoolSize,
+      double optionalAttendeeRatio, long seed) {
+    if (attendeesPerEvent > attendeePoolSize) {
+      throw new IllegalArgumentException("attendeesPerEvent cannot be more than attendeePoolSize");
+    }
+
+    if (optionalAttendeeRatio < 0 || optionalAttendeeRatio > 1) {
+      throw new IllegalArgumentException("optionalAttendeeRatio must be between 0 and 1");
+    }
+
+    this.eventsPerDay = eventsPerDay;
+    this.attendeesPerEvent = attendeesPerEvent;
+    this.optionalAttendeeRatio = optionalAttendeeRatio;
+    this.random = new Random(seed);
+
+    this.people = new String[attendeePoolSize];
+    for (int i = 0; i < attendeePoolSize; i++) {
+      people[i] = "Person " + i;
+    }
+  }
+
+  /** Returns a new list of {@code eventsPerDay} random events. */
+  public List<Event> generateEvents() {
+    List<Event> events = new ArrayList<>(eventsPerDay);
+    for (int i = 0; i < eventsPerDay; i++) {
+      int duration = EVENT_DURATIONS[random.nextInt(EVENT_DURATIONS.length)];
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - duration + 1);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          pickPeople(attendeesPerEvent)));
+    }
+    return events;
+  }
+
+  /**
+   * Returns a request for a meeting between {@code invitees} random people, of which roughly
+   * {@code optionalAttendeeRatio} are optional.
+   */
+  public MeetingRequest generateRequest(int invitees, long duration) {
+    List<String> invited = new ArrayList<>(pickPeople(invitees));
+    int optional = (int) Math.round(invited.size() * optionalAttendeeRatio);
+    int required = invited.size() - optional;
+
+    MeetingRequest request = new MeetingRequest(invited.subList(0, required), duration);
+    for (String person : invited.subList(required, invited.size())) {
+      request.addOptionalAttendee(person);
+    }
+    return request;
+  }
+
+  private Set<String> pickPeople(int count) {
+    Set<String> picked = new HashSet<>();
+    while (picked.size() < Math.min(count, people.length)) {
+      picked.add(people[random.nextInt(people.length)]);
+    }
+    return picked;
+  }
+}
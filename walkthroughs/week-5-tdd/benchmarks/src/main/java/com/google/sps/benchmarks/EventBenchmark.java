@@ -0,0 +1,110 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Measures the {@link Event} and {@link TimeRange} operations that the scheduler relies on. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBenchmark {
+  @Param({"1000"})
+  public int eventsPerDay;
+
+  @Param({"4"})
+  public int attendeesPerEvent;
+
+  @Param({"500"})
+  public int attendeePoolSize;
+
+  private List<Event> events;
+  private List<TimeRange> ranges;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(
+        eventsPerDay, attendeesPerEvent, attendeePoolSize, /* optionalAttendeeRatio= */ 0,
+        /* seed= */ 42);
+    events = generator.generateEvents();
+    ranges = new ArrayList<>(events.size());
+    for (Event event : events) {
+      ranges.add(event.getWhen());
+    }
+  }
+
+  /** Walks every attendee of every event, the way the scheduler filters events. */
+  @Benchmark
+  public void iterateAttendees(Blackhole blackhole) {
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        blackhole.consume(attendee);
+      }
+    }
+  }
+
+  /** Sorts a copy of the event times by start time. */
+  @Benchmark
+  public List<TimeRange> sortTimeRanges() {
+    List<TimeRange> copy = new ArrayList<>(ranges);
+    Collections.sort(copy, TimeRange.ORDER_BY_START);
+    return copy;
+  }
+
+  /** Counts overlapping pairs among the first hundred event times. */
+  @Benchmark
+  public int overlappingPairs() {
+    int limit = Math.min(100, ranges.size());
+    int overlaps = 0;
+    for (int i = 0; i < limit; i++) {
+      for (int j = i + 1; j < limit; j++) {
+        if (ranges.get(i).overlaps(ranges.get(j))) {
+          overlaps++;
+        }
+      }
+    }
+    return overlaps;
+  }
+
+  /** Hashes every event time, as a {@code HashSet<TimeRange>} would. */
+  @Benchmark
+  public int hashTimeRanges() {
+    int hash = 0;
+    for (TimeRange range : ranges) {
+      hash += range.hashCode();
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link FindMeetingQuery#query} throughput on a synthetic calendar for each engine. Run
+ * with {@code -prof gc} to also see the allocation rate per query. Queries that don't depend on the
+ * engine are in {@link IndexedQueryBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FindMeetingQueryBenchmark {
+  // Requests are cycled through so that the JIT can't specialize on a single request.
+  private static final int REQUEST_COUNT = 256;
+
+  @Param({"100", "10000"})
+  public int eventsPerDay;
+
+  @Param({"1", "4"})
+  public int attendeesPerEvent;
+
+  @Param({"50", "5000"})
+  public int attendeePoolSize;
+
+  @Param({"0.0", "0.4"})
+  public double optionalAttendeeRatio;
+
+  @Param({"5"})
+  public int attendeesPerRequest;
+
+  @Param({"30"})
+  public long meetingDuration;
+
+  @Param({"SORT_AND_SWEEP", "BITSET", "INDEXED"})
+  public FindMeetingQuery.Engine engine;
+
+  private List<Event> events;
+  private MeetingRequest[] requests;
+  private FindMeetingQuery query;
+  private int next;
+  private long checksum;
+  private final FindMeetingQuery.TimeRangeConsumer consumer = (start, end) -> checksum += start ^ end;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(
+        eventsPerDay, attendeesPerEvent, attendeePoolSize, optionalAttendeeRatio, /* seed= */ 42);
+    events = generator.generateEvents();
+    requests = new MeetingRequest[REQUEST_COUNT];
+    for (int i = 0; i < REQUEST_COUNT; i++) {
+      requests[i] = generator.generateRequest(attendeesPerRequest, meetingDuration);
+    }
+
+    query = new FindMeetingQuery(engine);
+  }
+
+  private MeetingRequest nextRequest() {
+    MeetingRequest request = requests[next];
+    next = (next + 1) % REQUEST_COUNT;
+    return request;
+  }
+
+  /** Answers one request against the full list of events, using {@code engine}. */
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return query.query(events, nextRequest());
+  }
+
+  /**
+   * Answers one request against the full list of events, streaming the meeting times instead of
+   * collecting them. Returns a checksum of the times so that the work can't be optimized away.
+   */
+  @Benchmark
+  public long queryStreaming() {
+    checksum = 0;
+    query.query(events, nextRequest(), TimeRange.WHOLE_DAY, consumer);
+    return checksum;
+  }
+}
@@ -0,0 +1,106 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.BusyIntervalIndex;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link FindMeetingQuery} entry points that always use a {@link BusyIntervalIndex},
+ * whatever the engine, on the same synthetic calendars as {@link FindMeetingQueryBenchmark}. Kept
+ * separate so that each of these is measured once per calendar instead of once per engine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IndexedQueryBenchmark {
+  // Requests are cycled through so that the JIT can't specialize on a single request.
+  private static final int REQUEST_COUNT = 256;
+
+  @Param({"100", "10000"})
+  public int eventsPerDay;
+
+  @Param({"1", "4"})
+  public int attendeesPerEvent;
+
+  @Param({"50", "5000"})
+  public int attendeePoolSize;
+
+  @Param({"0.0", "0.4"})
+  public double optionalAttendeeRatio;
+
+  @Param({"5"})
+  public int attendeesPerRequest;
+
+  @Param({"30"})
+  public long meetingDuration;
+
+  private List<Event> events;
+  private MeetingRequest[] requests;
+  private FindMeetingQuery query;
+  private BusyIntervalIndex index;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(
+        eventsPerDay, attendeesPerEvent, attendeePoolSize, optionalAttendeeRatio, /* seed= */ 42);
+    events = generator.generateEvents();
+    requests = new MeetingRequest[REQUEST_COUNT];
+    for (int i = 0; i < REQUEST_COUNT; i++) {
+      requests[i] = generator.generateRequest(attendeesPerRequest, meetingDuration);
+    }
+
+    query = new FindMeetingQuery();
+    index = new BusyIntervalIndex(events);
+  }
+
+  /** Answers one request against an index that was built ahead of time. */
+  @Benchmark
+  public Collection<TimeRange> queryPrebuiltIndex() {
+    MeetingRequest request = requests[next];
+    next = (next + 1) % REQUEST_COUNT;
+    return query.query(index, request);
+  }
+
+  /** Answers every request in one batch. Divide by the number of requests for a per-query cost. */
+  @Benchmark
+  @OperationsPerInvocation(REQUEST_COUNT)
+  public List<Collection<TimeRange>> queryBatch() {
+    return query.queryAll(events, Arrays.asList(requests));
+  }
+}
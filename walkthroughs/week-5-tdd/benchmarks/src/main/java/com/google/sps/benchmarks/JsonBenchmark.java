@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.CalendarJson;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the per-request cost of building a new {@link Gson} in every servlet call with the
+ * shared {@link CalendarJson} codec. Run with {@code -prof gc} and compare the
+ * {@code gc.alloc.rate.norm} rows, which give the bytes allocated per request.
+ *
+ * <p>Only the calendar types are measured. The codecs for comments, tasks, markers and UFO
+ * sightings live in other example projects, which this module doesn't depend on.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBenchmark {
+  private static final String REQUEST_JSON =
+      "{\"duration\":30,\"attendees\":[\"Person 1\",\"Person 2\",\"Person 3\"],"
+          + "\"optional_attendees\":[\"Person 4\",\"Person 5\"]}";
+
+  @Param({"100", "10000"})
+  public int eventsPerDay;
+
+  private List<Event> events;
+  private final CountingWriter output = new CountingWriter();
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(
+        eventsPerDay, /* attendeesPerEvent= */ 4, /* attendeePoolSize= */ 500,
+        /* optionalAttendeeRatio= */ 0, /* seed= */ 42);
+    events = generator.generateEvents();
+  }
+
+  /** What {@code /get-events} used to do: a new Gson and the whole response as a String. */
+  @Benchmark
+  public String getEventsNewGsonPerRequest() {
+    return new Gson().toJson(events);
+  }
+
+  /** The shared codec, still building the whole response as a String. */
+  @Benchmark
+  public String getEventsSharedGson() {
+    return CalendarJson.GSON.toJson(events);
+  }
+
+  /** What {@code /get-events} does now: the shared codec streaming to the response writer. */
+  @Benchmark
+  public long getEventsStreaming() throws IOException {
+    output.count = 0;
+    JsonWriter writer = CalendarJson.GSON.newJsonWriter(output);
+    CalendarJson.writeEvents(writer, events);
+    writer.flush();
+    return output.count;
+  }
+
+  /** What {@code /query} used to do to read its request body. */
+  @Benchmark
+  public MeetingRequest parseRequestNewGsonPerRequest() {
+    return new Gson().fromJson(REQUEST_JSON, MeetingRequest.class);
+  }
+
+  /** Reads the request body with the shared codec. */
+  @Benchmark
+  public MeetingRequest parseRequestSharedGson() {
+    return CalendarJson.GSON.fromJson(REQUEST_JSON, MeetingRequest.class);
+  }
+
+  /** Stands in for the servlet response: counts characters and throws them away. */
+  private static final class CountingWriter extends Writer {
+    long count;
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      count += length;
+    }
+
+    @Override
+    public void write(String string, int offset, int length) {
+      count += length;
+    }
+
+    @Override
+    public void write(int c) {
+      count++;
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+}
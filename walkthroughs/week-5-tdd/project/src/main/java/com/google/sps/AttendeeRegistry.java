@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns attendee names to small, dense {@code int} IDs. Comparing IDs is much cheaper than hashing
+ * and comparing names, so the scheduler works with IDs internally. IDs are never reused, and the
+ * same name always maps to the same ID for the lifetime of the process.
+ *
+ * <p>Only event attendees are interned. Names in a meeting request are looked up with
+ * {@link #lookup}, so that requests can't grow the registry.
+ */
+public final class AttendeeRegistry {
+  /** Returned by {@link #lookup} for a name that has never been interned. */
+  public static final int UNKNOWN = -1;
+
+  private static final AttendeeRegistry GLOBAL = new AttendeeRegistry();
+
+  private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+  private final List<String> names = new ArrayList<>();
+
+  /** Returns the registry shared by every {@link Event} and {@link MeetingRequest}. */
+  public static AttendeeRegistry global() {
+    return GLOBAL;
+  }
+
+  /** Returns the ID for {@code name}, assigning the next free ID if it has not been seen before. */
+  public int intern(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    synchronized (names) {
+      // Check again now that we hold the lock, in case another thread added the name.
+      id = ids.get(name);
+      if (id == null) {
+        id = names.size();
+        names.add(name);
+        ids.put(name, id);
+      }
+      return id;
+    }
+  }
+
+  /** Returns the ID for {@code name}, or {@link #UNKNOWN} if it has never been interned. */
+  public int lookup(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+    Integer id = ids.get(name);
+    return id == null ? UNKNOWN : id;
+  }
+
+  /** Returns the name that was interned as {@code id}. */
+  public String getName(int id) {
+    synchronized (names) {
+      if (id < 0 || id >= names.size()) {
+        throw new IllegalArgumentException("Unknown attendee id: " + id);
+      }
+      return names.get(id);
+    }
+  }
+
+  /** Returns the number of names that have been interned so far. */
+  public int size() {
+    return ids.size();
+  }
+}
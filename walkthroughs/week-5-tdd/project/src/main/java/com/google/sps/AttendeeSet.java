@@ -0,0 +1,135 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of attendee IDs from an {@link AttendeeRegistry}, stored as a sorted {@code int[]}.
+ * Membership checks are a binary search and intersection checks are a linear merge, so neither
+ * hashes strings or allocates iterators.
+ */
+public final class AttendeeSet {
+  public static final AttendeeSet EMPTY = new AttendeeSet(new int[0]);
+
+  private final int[] ids;
+
+  private AttendeeSet(int[] ids) {
+    this.ids = ids;
+  }
+
+  /** Creates a set containing the IDs of every name in {@code names}, interning them if needed. */
+  public static AttendeeSet of(Collection<String> names, AttendeeRegistry registry) {
+    if (names.isEmpty()) {
+      return EMPTY;
+    }
+
+    int[] ids = new int[names.size()];
+    int size = 0;
+    for (String name : names) {
+      ids[size++] = registry.intern(name);
+    }
+    return fromIds(ids, size);
+  }
+
+  /**
+   * Creates a set containing the IDs of the names in {@code names} that are already in
+   * {@code registry}. The other names are left out rather than interned: nobody by that name is on
+   * the calendar, so they are never busy.
+   */
+  public static AttendeeSet lookup(Collection<String> names, AttendeeRegistry registry) {
+    if (names.isEmpty()) {
+      return EMPTY;
+    }
+
+    int[] ids = new int[names.size()];
+    int size = 0;
+    for (String name : names) {
+      int id = registry.lookup(name);
+      if (id != AttendeeRegistry.UNKNOWN) {
+        ids[size++] = id;
+      }
+    }
+    return size == 0 ? EMPTY : fromIds(ids, size);
+  }
+
+  /** Sorts the first {@code size} IDs in {@code ids} and wraps them without duplicates. */
+  private static AttendeeSet fromIds(int[] ids, int size) {
+    Arrays.sort(ids, 0, size);
+
+    // Drop duplicates in case the names were not a set.
+    int unique = 0;
+    for (int i = 0; i < size; i++) {
+      if (unique == 0 || ids[unique - 1] != ids[i]) {
+        ids[unique++] = ids[i];
+      }
+    }
+    return new AttendeeSet(unique == ids.length ? ids : Arrays.copyOf(ids, unique));
+  }
+
+  /** Returns the number of attendees in this set. */
+  public int size() {
+    return ids.length;
+  }
+
+  /** Returns {@code true} if this set has no attendees. */
+  public boolean isEmpty() {
+    return ids.length == 0;
+  }
+
+  /** Returns the ID at {@code index}. IDs are in ascending order. */
+  public int get(int index) {
+    return ids[index];
+  }
+
+  /** Returns {@code true} if {@code id} is in this set. */
+  public boolean contains(int id) {
+    return Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  /** Returns {@code true} if this set and {@code other} have at least one attendee in common. */
+  public boolean intersects(AttendeeSet other) {
+    int[] a = ids;
+    int[] b = other.ids;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        return true;
+      } else if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof AttendeeSet && Arrays.equals(ids, ((AttendeeSet) other).ids);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(ids);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(ids);
+  }
+}
@@ -0,0 +1,383 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A read-only calendar stored in a compact binary file and read through a memory-mapped buffer.
+ * Opening a calendar doesn't parse anything, and events are read straight out of the mapping, so
+ * the heap doesn't grow with the size of the calendar.
+ *
+ * <p>The file is a series of big-endian ints, except for the string data:
+ *
+ * <pre>
+ * magic, format version, string count, event count, attendee entry count
+ * string offsets   int[string count + 1]   byte offset of each string in the string data
+ * string data      UTF-8 bytes, padded with zeros to a multiple of four bytes
+ * titles           int[event count]        string index of each event's title
+ * starts           int[event count]
+ * durations        int[event count]
+ * attendee offsets int[event count + 1]    where each event's attendees begin in the next column
+ * attendees        int[attendee entry count] string index of each attendee
+ * </pre>
+ *
+ * <p>The string table holds every title and attendee name once, sorted by their UTF-8 bytes, so a
+ * name can be found by binary search without decoding any strings. The attendee columns are a
+ * compressed sparse row layout: the attendees of event {@code i} are entries
+ * {@code [attendeeOffsets[i], attendeeOffsets[i + 1])}, sorted by string index.
+ */
+public final class BinaryCalendar {
+  private static final int MAGIC = 0x43414C31; // "CAL1"
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final int stringCount;
+  private final int eventCount;
+
+  // Byte offsets of each section.
+  private final int stringOffsets;
+  private final int stringData;
+  private final int titles;
+  private final int starts;
+  private final int durations;
+  private final int attendeeOffsets;
+  private final int attendees;
+
+  private BinaryCalendar(ByteBuffer buffer) {
+    if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Not a binary calendar");
+    }
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IllegalArgumentException("Unsupported calendar version " + buffer.getInt(4));
+    }
+
+    this.buffer = buffer;
+    stringCount = buffer.getInt(8);
+    eventCount = buffer.getInt(12);
+    int attendeeCount = buffer.getInt(16);
+
+    stringOffsets = HEADER_BYTES;
+    stringData = stringOffsets + (stringCount + 1) * Integer.BYTES;
+    titles = stringData + padded(buffer.getInt(stringOffsets + stringCount * Integer.BYTES));
+    starts = titles + eventCount * Integer.BYTES;
+    durations = starts + eventCount * Integer.BYTES;
+    attendeeOffsets = durations + eventCount * Integer.BYTES;
+    attendees = attendeeOffsets + (eventCount + 1) * Integer.BYTES;
+
+    if ((long) attendees + (long) attendeeCount * Integer.BYTES > buffer.capacity()) {
+      throw new IllegalArgumentException("Binary calendar is truncated");
+    }
+  }
+
+  /** Maps the calendar stored in {@code file} into memory. */
+  public static BinaryCalendar open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new BinaryCalendar(buffer);
+    }
+  }
+
+  /** Reads a calendar from bytes in the binary format, such as ones produced by {@link #encode}. */
+  public static BinaryCalendar wrap(ByteBuffer buffer) {
+    return new BinaryCalendar(buffer.duplicate());
+  }
+
+  /** Writes {@code events} to {@code file} in the binary format. */
+  public static void write(Collection<Event> events, Path file) throws IOException {
+    Files.write(file, encode(events).array());
+  }
+
+  /** Encodes {@code events} in the binary format. */
+  public static ByteBuffer encode(Collection<Event> events) {
+    // Build the sorted string table.
+    TreeSet<byte[]> sortedStrings = new TreeSet<>(BinaryCalendar::compareBytes);
+    for (Event event : events) {
+      sortedStrings.add(utf8(event.getTitle()));
+      for (String attendee : event.getAttendees()) {
+        sortedStrings.add(utf8(attendee));
+      }
+    }
+    List<byte[]> strings = new ArrayList<>(sortedStrings);
+    Map<String, Integer> indexes = new HashMap<>();
+    int dataBytes = 0;
+    for (int i = 0; i < strings.size(); i++) {
+      indexes.put(new String(strings.get(i), StandardCharsets.UTF_8), i);
+      dataBytes += strings.get(i).length;
+    }
+
+    int attendeeCount = 0;
+    for (Event event : events) {
+      attendeeCount += event.getAttendees().size();
+    }
+
+    int size = HEADER_BYTES
+        + (strings.size() + 1) * Integer.BYTES
+        + padded(dataBytes)
+        + events.size() * 3 * Integer.BYTES
+        + (events.size() + 1) * Integer.BYTES
+        + attendeeCount * Integer.BYTES;
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(strings.size()).putInt(events.size())
+        .putInt(attendeeCount);
+
+    int offset = 0;
+    for (byte[] string : strings) {
+      buffer.putInt(offset);
+      offset += string.length;
+    }
+    buffer.putInt(offset);
+    for (byte[] string : strings) {
+      buffer.put(string);
+    }
+    buffer.position(buffer.position() + padded(dataBytes) - dataBytes);
+
+    for (Event event : events) {
+      buffer.putInt(indexes.get(event.getTitle()));
+    }
+    for (Event event : events) {
+      buffer.putInt(event.getWhen().start());
+    }
+    for (Event event : events) {
+      buffer.putInt(event.getWhen().duration());
+    }
+
+    offset = 0;
+    for (Event event : events) {
+      buffer.putInt(offset);
+      offset += event.getAttendees().size();
+    }
+    buffer.putInt(offset);
+    for (Event event : events) {
+      int[] attendeeIndexes = new int[event.getAttendees().size()];
+      int i = 0;
+      for (String attendee : event.getAttendees()) {
+        attendeeIndexes[i++] = indexes.get(attendee);
+      }
+      Arrays.sort(attendeeIndexes);
+      for (int index : attendeeIndexes) {
+        buffer.putInt(index);
+      }
+    }
+
+    buffer.flip();
+    return buffer;
+  }
+
+  /** Returns the number of events in the calendar. */
+  public int size() {
+    return eventCount;
+  }
+
+  /** Returns the start of event {@code event} in minutes. */
+  public int start(int event) {
+    return buffer.getInt(starts + checkEvent(event) * Integer.BYTES);
+  }
+
+  /** Returns the duration of event {@code event} in minutes. */
+  public int duration(int event) {
+    return buffer.getInt(durations + checkEvent(event) * Integer.BYTES);
+  }
+
+  /** Returns the title of event {@code event}. */
+  public String title(int event) {
+    return string(buffer.getInt(titles + checkEvent(event) * Integer.BYTES));
+  }
+
+  /** Returns the number of attendees of event {@code event}. */
+  public int attendeeCount(int event) {
+    return attendeeEnd(event) - attendeeStart(event);
+  }
+
+  /** Returns the string table index of attendee {@code index} of event {@code event}. */
+  public int attendeeIndex(int event, int index) {
+    if (index < 0 || index >= attendeeCount(event)) {
+      throw new IndexOutOfBoundsException("Index: " + index);
+    }
+    return buffer.getInt(attendees + (attendeeStart(event) + index) * Integer.BYTES);
+  }
+
+  /**
+   * Returns {@code true} if event {@code event} has any of the attendees in {@code sortedIndexes},
+   * which must be sorted string table indexes.
+   */
+  public boolean hasAnyAttendee(int event, int[] sortedIndexes) {
+    // Both lists are sorted, so walk them together.
+    int i = attendeeStart(event);
+    int end = attendeeEnd(event);
+    int j = 0;
+    while (i < end && j < sortedIndexes.length) {
+      int attendee = buffer.getInt(attendees + i * Integer.BYTES);
+      if (attendee == sortedIndexes[j]) {
+        return true;
+      } else if (attendee < sortedIndexes[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the number of strings in the string table. */
+  public int stringCount() {
+    return stringCount;
+  }
+
+  /** Returns string {@code index} of the string table. */
+  public String string(int index) {
+    if (index < 0 || index >= stringCount) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + stringCount);
+    }
+    int start = stringStart(index);
+    byte[] bytes = new byte[stringStart(index + 1) - start];
+    ByteBuffer view = buffer.duplicate();
+    view.position(stringData + start);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Returns the string table index of {@code name}, or -1 if it isn't in the calendar. */
+  public int indexOf(String name) {
+    byte[] key = utf8(name);
+    int low = 0;
+    int high = stringCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compareToKey(middle, key);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the sorted string table indexes of the names in {@code names}, leaving out any that
+   * aren't in the calendar.
+   */
+  public int[] indexesOf(Collection<String> names) {
+    int[] indexes = new int[names.size()];
+    int size = 0;
+    for (String name : names) {
+      int index = indexOf(name);
+      if (index >= 0) {
+        indexes[size++] = index;
+      }
+    }
+    Arrays.sort(indexes, 0, size);
+    return Arrays.copyOf(indexes, size);
+  }
+
+  /** Decodes event {@code event} into an {@link Event}. */
+  public Event getEvent(int event) {
+    List<String> eventAttendees = new ArrayList<>(attendeeCount(event));
+    for (int i = 0; i < attendeeCount(event); i++) {
+      eventAttendees.add(string(attendeeIndex(event, i)));
+    }
+    return new Event(title(event),
+        TimeRange.fromStartDuration(start(event), duration(event)), eventAttendees);
+  }
+
+  /**
+   * Returns a read-only view of the calendar as a list of {@link Event}. Events are decoded each
+   * time they are read, so prefer the column accessors for anything that reads every event.
+   */
+  public List<Event> asList() {
+    return new AbstractList<Event>() {
+      @Override
+      public Event get(int index) {
+        return getEvent(index);
+      }
+
+      @Override
+      public int size() {
+        return eventCount;
+      }
+    };
+  }
+
+  private int attendeeStart(int event) {
+    return buffer.getInt(attendeeOffsets + checkEvent(event) * Integer.BYTES);
+  }
+
+  private int attendeeEnd(int event) {
+    return buffer.getInt(attendeeOffsets + (checkEvent(event) + 1) * Integer.BYTES);
+  }
+
+  private int stringStart(int index) {
+    return buffer.getInt(stringOffsets + index * Integer.BYTES);
+  }
+
+  /** Compares string {@code index} of the table with {@code key}, byte by byte. */
+  private int compareToKey(int index, byte[] key) {
+    int start = stringData + stringStart(index);
+    int length = stringStart(index + 1) - stringStart(index);
+    for (int i = 0; i < Math.min(length, key.length); i++) {
+      int comparison = Integer.compare(buffer.get(start + i) & 0xFF, key[i] & 0xFF);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return Integer.compare(length, key.length);
+  }
+
+  private int checkEvent(int event) {
+    if (event < 0 || event >= eventCount) {
+      throw new IndexOutOfBoundsException("Index: " + event + ", Size: " + eventCount);
+    }
+    return event;
+  }
+
+  private static int compareBytes(byte[] a, byte[] b) {
+    for (int i = 0; i < Math.min(a.length, b.length); i++) {
+      int comparison = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return Integer.compare(a.length, b.length);
+  }
+
+  private static byte[] utf8(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** Rounds {@code bytes} up to a whole number of ints. */
+  private static int padded(int bytes) {
+    return (bytes + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES;
+  }
+}
@@ -0,0 +1,279 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index from attendee name to the times that attendee is busy. Each attendee's busy times are kept
+ * sorted and merged, so a query only has to look at the people it invites instead of every event
+ * on the calendar. The index is built once and then kept up to date with {@link #add} and
+ * {@link #remove}.
+ */
+public final class BusyIntervalIndex {
+  private static final int[] NO_INTERVALS = new int[0];
+
+  // The events each attendee is going to. Needed to rebuild an attendee's busy times when one of
+  // their events is removed.
+  private final Map<String, List<Event>> eventsByAttendee = new HashMap<>();
+
+  // Sorted, non-overlapping busy times for each attendee, stored as {start, end, start, end, ...}
+  // with exclusive ends.
+  private final Map<String, int[]> busyByAttendee = new HashMap<>();
+
+  /** Creates an empty index. */
+  public BusyIntervalIndex() {}
+
+  /**
+   * Creates an index containing every event in {@code events}.
+   *
+   * @param events The events to index. Must be non-null.
+   */
+  public BusyIntervalIndex(Collection<Event> events) {
+    this(events, null);
+  }
+
+  /**
+   * Creates an index of {@code events} that only tracks the people in {@code attendees}, or
+   * everyone if {@code attendees} is null. Used when the set of people that will be queried is
+   * known up front, such as for a batch of requests.
+   */
+  BusyIntervalIndex(Collection<Event> events, Set<String> attendees) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        if (attendees == null || attendees.contains(attendee)) {
+          eventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+        }
+      }
+    }
+    for (Map.Entry<String, List<Event>> entry : eventsByAttendee.entrySet()) {
+      busyByAttendee.put(entry.getKey(), merge(entry.getValue()));
+    }
+  }
+
+  /** Adds an event, updating the busy times of its attendees only. */
+  public void add(Event event) {
+    TimeRange when = event.getWhen();
+    for (String attendee : event.getAttendees()) {
+      eventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+      busyByAttendee.put(attendee, insert(busyFor(attendee), when.start(), when.end()));
+    }
+  }
+
+  /**
+   * Removes an event, updating the busy times of its attendees only. Returns {@code false} if the
+   * event was not in the index.
+   */
+  public boolean remove(Event event) {
+    boolean removed = false;
+    for (String attendee : event.getAttendees()) {
+      List<Event> attendeeEvents = eventsByAttendee.get(attendee);
+      if (attendeeEvents == null || !attendeeEvents.remove(event)) {
+        continue;
+      }
+
+      removed = true;
+      if (attendeeEvents.isEmpty()) {
+        eventsByAttendee.remove(attendee);
+        busyByAttendee.remove(attendee);
+      } else {
+        busyByAttendee.put(attendee, merge(attendeeEvents));
+      }
+    }
+    return removed;
+  }
+
+  /** Returns the merged times that {@code attendee} is busy, sorted by start time. */
+  public List<TimeRange> getBusyTimes(String attendee) {
+    int[] busy = busyFor(attendee);
+    List<TimeRange> times = new ArrayList<>(busy.length / 2);
+    for (int i = 0; i < busy.length; i += 2) {
+      times.add(TimeRange.fromStartEnd(busy[i], busy[i + 1], false));
+    }
+    return times;
+  }
+
+  /**
+   * Finds the times inside {@code window} that work for a meeting. Follows the same rules as
+   * {@link FindMeetingQuery#query}, but only reads the busy times of the invited attendees.
+   */
+  Collection<TimeRange> query(MeetingRequest request, TimeRange window) {
+    Collection<String> attendees = request.getAttendees();
+    Collection<String> optionalAttendees = request.getOptionalAttendees();
+    long meetingTime = request.getDuration();
+
+    if (attendees.isEmpty() && optionalAttendees.isEmpty()) {
+      return new ArrayList<>(Arrays.asList(window));
+    } else if (meetingTime == 0 || meetingTime > window.duration()) {
+      return new ArrayList<>();
+    }
+
+    List<TimeRange> gaps = freeTimes(everyone(attendees, optionalAttendees), meetingTime, window);
+    if (gaps.isEmpty() && !attendees.isEmpty()) {
+      gaps = freeTimes(attendees, meetingTime, window);
+    }
+    return gaps;
+  }
+
+  /**
+   * Returns the times inside {@code window} that are at least {@code minLength} minutes long and
+   * when none of {@code people} are busy.
+   */
+  List<TimeRange> freeTimes(Collection<String> people, long minLength, TimeRange window) {
+    List<int[]> busyLists = new ArrayList<>(people.size());
+    for (String person : people) {
+      busyLists.add(busyFor(person));
+    }
+    return findGaps(busyLists, minLength, window);
+  }
+
+  private static Collection<String> everyone(
+      Collection<String> attendees, Collection<String> optionalAttendees) {
+    List<String> everyone = new ArrayList<>(attendees.size() + optionalAttendees.size());
+    everyone.addAll(attendees);
+    everyone.addAll(optionalAttendees);
+    return everyone;
+  }
+
+  /** Returns the merged busy times of {@code attendee} in the {start, end, ...} layout. */
+  int[] busyFor(String attendee) {
+    int[] busy = busyByAttendee.get(attendee);
+    return busy == null ? NO_INTERVALS : busy;
+  }
+
+  /**
+   * Walks the busy times of several attendees in start order (a k-way merge) and returns the gaps
+   * between them inside {@code window} that are at least {@code meetingTime} long.
+   */
+  private static List<TimeRange> findGaps(List<int[]> busyLists, long meetingTime, TimeRange window) {
+    List<TimeRange> results = new ArrayList<>();
+    int[] cursors = new int[busyLists.size()];
+    int endOfLatestEvent = window.start();
+    int endOfWindow = window.end();
+
+    // Skip straight to the busy times that end inside the window.
+    for (int i = 0; i < cursors.length; i++) {
+      cursors[i] = firstEndingAfter(busyLists.get(i), window.start());
+    }
+
+    while (true) {
+      // Only a handful of people are invited to a meeting, so a linear scan for the earliest
+      // interval is cheaper than maintaining a heap.
+      int next = -1;
+      int nextStart = Integer.MAX_VALUE;
+      for (int i = 0; i < cursors.length; i++) {
+        int[] busy = busyLists.get(i);
+        if (cursors[i] < busy.length && busy[cursors[i]] < nextStart) {
+          next = i;
+          nextStart = busy[cursors[i]];
+        }
+      }
+      if (next == -1 || nextStart >= endOfWindow) {
+        break;
+      }
+
+      int nextEnd = busyLists.get(next)[cursors[next] + 1];
+      cursors[next] += 2;
+
+      addGapIfValid(results, endOfLatestEvent, nextStart, meetingTime);
+      endOfLatestEvent = Math.max(endOfLatestEvent, nextEnd);
+    }
+
+    addGapIfValid(results, endOfLatestEvent, endOfWindow, meetingTime);
+    return results;
+  }
+
+  /** Returns the index of the first interval in {@code busy} that ends after {@code time}. */
+  private static int firstEndingAfter(int[] busy, int time) {
+    // Merged intervals are sorted by both start and end, so the ends can be binary searched.
+    int low = 0;
+    int high = busy.length / 2;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (busy[middle * 2 + 1] <= time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low * 2;
+  }
+
+  private static void addGapIfValid(List<TimeRange> results, int start, int end, long meetingTime) {
+    if (start < end && end - start >= meetingTime) {
+      results.add(TimeRange.fromStartEnd(start, end, false));
+    }
+  }
+
+  /** Sorts and merges the times of a list of events into the {start, end, ...} layout. */
+  private static int[] merge(List<Event> events) {
+    TimeRange[] sorted = new TimeRange[events.size()];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = events.get(i).getWhen();
+    }
+    Arrays.sort(sorted, TimeRange.ORDER_BY_START);
+
+    int[] merged = new int[sorted.length * 2];
+    int size = 0;
+    for (TimeRange time : sorted) {
+      if (time.duration() <= 0) {
+        continue;
+      }
+      if (size > 0 && time.start() <= merged[size - 1]) {
+        merged[size - 1] = Math.max(merged[size - 1], time.end());
+      } else {
+        merged[size++] = time.start();
+        merged[size++] = time.end();
+      }
+    }
+    return Arrays.copyOf(merged, size);
+  }
+
+  /** Returns a copy of {@code busy} with {@code [start, end)} merged into it. */
+  private static int[] insert(int[] busy, int start, int end) {
+    if (start >= end) {
+      return busy;
+    }
+
+    // Find the intervals that touch the new one: everything in [first, last) gets folded in.
+    int first = 0;
+    while (first < busy.length && busy[first + 1] < start) {
+      first += 2;
+    }
+    int last = first;
+    while (last < busy.length && busy[last] <= end) {
+      start = Math.min(start, busy[last]);
+      end = Math.max(end, busy[last + 1]);
+      last += 2;
+    }
+
+    int[] result = new int[busy.length - (last - first) + 2];
+    System.arraycopy(busy, 0, result, 0, first);
+    result[first] = start;
+    result[first + 1] = end;
+    System.arraycopy(busy, last, result, first + 2, busy.length - last);
+    return result;
+  }
+}
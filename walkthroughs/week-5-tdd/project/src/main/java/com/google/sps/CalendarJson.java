@@ -0,0 +1,217 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hand-written Gson type adapters for the calendar classes. They produce the same JSON as Gson's
+ * reflection-based adapters, but are built once and write straight to a {@link JsonWriter}, so
+ * responses can be streamed without building the whole JSON string first. Reading an event goes
+ * through its constructor, so the usual checks apply.
+ */
+public final class CalendarJson {
+  /** Reads and writes a {@link TimeRange} as {@code {"start": ..., "duration": ...}}. */
+  public static final TypeAdapter<TimeRange> TIME_RANGE = new TypeAdapter<TimeRange>() {
+    @Override
+    public void write(JsonWriter out, TimeRange range) throws IOException {
+      if (range == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("start").value(range.start());
+      out.name("duration").value(range.duration());
+      out.endObject();
+    }
+
+    @Override
+    public TimeRange read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      int start = 0;
+      int duration = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "start":
+            start = in.nextInt();
+            break;
+          case "duration":
+            duration = in.nextInt();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return TimeRange.fromStartDuration(start, duration);
+    }
+  };
+
+  /**
+   * Reads and writes an {@link Event} as {@code {"title": ..., "when": ..., "attendees": [...]}}.
+   */
+  public static final TypeAdapter<Event> EVENT = new TypeAdapter<Event>() {
+    @Override
+    public void write(JsonWriter out, Event event) throws IOException {
+      if (event == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("title").value(event.getTitle());
+      out.name("when");
+      TIME_RANGE.write(out, event.getWhen());
+      out.name("attendees");
+      writeStrings(out, event.getAttendees());
+      out.endObject();
+    }
+
+    @Override
+    public Event read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      String title = null;
+      TimeRange when = null;
+      List<String> attendees = new ArrayList<>();
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "title":
+            title = in.nextString();
+            break;
+          case "when":
+            when = TIME_RANGE.read(in);
+            break;
+          case "attendees":
+            readStrings(in, attendees);
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new Event(title, when, attendees);
+    }
+  };
+
+  /**
+   * Reads and writes a {@link MeetingRequest} as
+   * {@code {"attendees": [...], "optional_attendees": [...], "duration": ...}}.
+   */
+  public static final TypeAdapter<MeetingRequest> MEETING_REQUEST =
+      new TypeAdapter<MeetingRequest>() {
+        @Override
+        public void write(JsonWriter out, MeetingRequest request) throws IOException {
+          if (request == null) {
+            out.nullValue();
+            return;
+          }
+          out.beginObject();
+          out.name("attendees");
+          writeStrings(out, request.getAttendees());
+          out.name("optional_attendees");
+          writeStrings(out, request.getOptionalAttendees());
+          out.name("duration").value(request.getDuration());
+          out.endObject();
+        }
+
+        @Override
+        public MeetingRequest read(JsonReader in) throws IOException {
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+          }
+          List<String> attendees = new ArrayList<>();
+          List<String> optionalAttendees = new ArrayList<>();
+          long duration = 0;
+          in.beginObject();
+          while (in.hasNext()) {
+            switch (in.nextName()) {
+              case "attendees":
+                readStrings(in, attendees);
+                break;
+              case "optional_attendees":
+                readStrings(in, optionalAttendees);
+                break;
+              case "duration":
+                duration = in.nextLong();
+                break;
+              default:
+                in.skipValue();
+            }
+          }
+          in.endObject();
+
+          MeetingRequest request = new MeetingRequest(attendees, duration);
+          for (String attendee : optionalAttendees) {
+            request.addOptionalAttendee(attendee);
+          }
+          return request;
+        }
+      };
+
+  /** A Gson instance that uses the adapters above. Gson instances are thread-safe. */
+  public static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(TimeRange.class, TIME_RANGE)
+      .registerTypeAdapter(Event.class, EVENT)
+      .registerTypeAdapter(MeetingRequest.class, MEETING_REQUEST)
+      .create();
+
+  private CalendarJson() {}
+
+  /** Writes {@code events} as a JSON array, one event at a time. */
+  public static void writeEvents(JsonWriter out, Iterable<Event> events) throws IOException {
+    out.beginArray();
+    for (Event event : events) {
+      EVENT.write(out, event);
+    }
+    out.endArray();
+  }
+
+  private static void writeStrings(JsonWriter out, Collection<String> strings) throws IOException {
+    out.beginArray();
+    for (String string : strings) {
+      out.value(string);
+    }
+    out.endArray();
+  }
+
+  private static void readStrings(JsonReader in, Collection<String> strings) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return;
+    }
+    in.beginArray();
+    while (in.hasNext()) {
+      strings.add(in.nextString());
+    }
+    in.endArray();
+  }
+}
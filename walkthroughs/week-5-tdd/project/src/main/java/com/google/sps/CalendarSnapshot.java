@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One version of the events in an {@link EventStore}. Snapshots are immutable, so they can be
+ * shared between threads and read without locking.
+ */
+public final class CalendarSnapshot {
+  /** The snapshot of a calendar that has never had any events. */
+  public static final CalendarSnapshot EMPTY = new CalendarSnapshot(0, Collections.emptyList());
+
+  private final long version;
+  private final List<Event> events;
+
+  private CalendarSnapshot(long version, List<Event> events) {
+    this.version = version;
+    this.events = events;
+  }
+
+  /** Creates a snapshot holding a copy of {@code events}. */
+  public static CalendarSnapshot of(long version, Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+    return new CalendarSnapshot(version, Collections.unmodifiableList(new ArrayList<>(events)));
+  }
+
+  /**
+   * Returns the version of the calendar. Every change to a store produces a snapshot with a higher
+   * version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /** Returns a read-only list of the events in this version of the calendar. */
+  public List<Event> getEvents() {
+    return events;
+  }
+
+  /** Returns a snapshot one version newer with {@code event} added. */
+  CalendarSnapshot plus(Event event) {
+    List<Event> newEvents = new ArrayList<>(events.size() + 1);
+    newEvents.addAll(events);
+    newEvents.add(event);
+    return new CalendarSnapshot(version + 1, Collections.unmodifiableList(newEvents));
+  }
+
+  /**
+   * Returns a snapshot one version newer with {@code event} removed, or this snapshot if it
+   * doesn't have the event.
+   */
+  CalendarSnapshot minus(Event event) {
+    int index = events.indexOf(event);
+    if (index < 0) {
+      return this;
+    }
+    List<Event> newEvents = new ArrayList<>(events);
+    newEvents.remove(index);
+    return new CalendarSnapshot(version + 1, Collections.unmodifiableList(newEvents));
+  }
+}
@@ -26,7 +26,11 @@ import java.util.Set;
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+  private final Set<String> attendees;
+
+  // IDs of the attendees, used by the scheduler for cheap membership checks. Transient so that it
+  // is not part of the JSON form of an event.
+  private transient AttendeeSet attendeeIds;
 
   /**
    * Creates a new event.
@@ -50,7 +54,9 @@ public final class Event {
 
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    // Keep a single read-only view so that {@code getAttendees()} doesn't create one per call.
+    this.attendees = Collections.unmodifiableSet(new HashSet<>(attendees));
+    this.attendeeIds = AttendeeSet.of(this.attendees, AttendeeRegistry.global());
   }
 
   /**
@@ -71,9 +77,21 @@ public final class Event {
    * Returns a read-only set of required attendees for this event.
    */
   public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
+    // The attendees are stored as an unmodifiable set so that the caller can't change our
     // internal data.
-    return Collections.unmodifiableSet(attendees);
+    return attendees;
+  }
+
+  /**
+   * Returns the IDs of the attendees for this event, as interned by the global
+   * {@link AttendeeRegistry}.
+   */
+  public AttendeeSet getAttendeeIds() {
+    // Events created by Gson skip the constructor, so compute the IDs on first use.
+    if (attendeeIds == null) {
+      attendeeIds = AttendeeSet.of(attendees, AttendeeRegistry.global());
+    }
+    return attendeeIds;
   }
 
   @Override
@@ -0,0 +1,31 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * A calendar of events that can change while it is being read. Reads never block: each read
+ * returns an immutable {@link CalendarSnapshot}, and writers publish a new snapshot rather than
+ * changing the one readers already have.
+ */
+public interface EventStore {
+  /** Returns the current version of the calendar. Never blocks and never changes afterwards. */
+  CalendarSnapshot snapshot();
+
+  /** Adds an event to the calendar. */
+  void add(Event event);
+
+  /** Removes an event from the calendar. Returns {@code false} if it wasn't there. */
+  boolean remove(Event event);
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * An {@link EventStore} that keeps its events in a JSON file, in the same form that
+ * {@code /get-events} returns them. The whole calendar is held in memory as well, so reads never
+ * touch the disk.
+ *
+ * <p>Writers take turns: each one writes the new calendar to a temporary file, moves it over the
+ * old one, and only then publishes the new snapshot. Readers read a volatile reference and never
+ * wait, and they never see a change that didn't make it to disk.
+ */
+public final class FileEventStore implements EventStore {
+  private final Path file;
+  private volatile CalendarSnapshot current;
+
+  /**
+   * Opens the calendar stored in {@code file}. If the file doesn't exist yet, the calendar starts
+   * out empty and the file is created on the first change.
+   */
+  public FileEventStore(Path file) throws IOException {
+    this.file = file;
+    if (Files.exists(file)) {
+      try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        Event[] events = CalendarJson.GSON.fromJson(reader, Event[].class);
+        current = events == null
+            ? CalendarSnapshot.EMPTY
+            : CalendarSnapshot.of(0, Arrays.asList(events));
+      }
+    } else {
+      current = CalendarSnapshot.EMPTY;
+    }
+  }
+
+  @Override
+  public CalendarSnapshot snapshot() {
+    return current;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the file couldn't be written. The calendar is left unchanged.
+   */
+  @Override
+  public synchronized void add(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+    publish(current.plus(event));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the file couldn't be written. The calendar is left unchanged.
+   */
+  @Override
+  public synchronized boolean remove(Event event) {
+    CalendarSnapshot updated = current.minus(event);
+    if (updated == current) {
+      return false;
+    }
+    publish(updated);
+    return true;
+  }
+
+  private void publish(CalendarSnapshot snapshot) {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+        JsonWriter json = CalendarJson.GSON.newJsonWriter(writer);
+        CalendarJson.writeEvents(json, snapshot.getEvents());
+        json.flush();
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not save the calendar to " + file, e);
+    }
+    current = snapshot;
+  }
+}
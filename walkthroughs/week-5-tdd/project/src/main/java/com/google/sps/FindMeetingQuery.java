@@ -16,8 +16,50 @@ package com.google.sps;
 
 import java.util.Collection;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public final class FindMeetingQuery {
+  /** The algorithms that can be used to find meeting times. */
+  public enum Engine {
+    /** Sorts the relevant events by start time and sweeps over them looking for gaps. */
+    SORT_AND_SWEEP,
+
+    /** ORs busy minutes into a one-bit-per-minute bitmap and scans it for free runs. */
+    BITSET,
+
+    /**
+     * Builds a {@link BusyIntervalIndex} from the events and merges the invited attendees' busy
+     * times. Callers with a long-lived calendar should keep the index around and use
+     * {@link #query(BusyIntervalIndex, MeetingRequest)} instead.
+     */
+    INDEXED
+  }
+
+  /** Receives meeting times from {@link #query(Collection, MeetingRequest, TimeRange, TimeRangeConsumer)}
+  * without a {@link TimeRange} being created for each one.
+  */
+  @FunctionalInterface
+  public interface TimeRangeConsumer {
+    /** Called once per meeting time, in start order, with its inclusive start and exclusive end. */
+    void accept(int start, int end);
+  }
+
+  private final Engine engine;
+
+  /** Creates a query that uses the sort-and-sweep engine. */
+  public FindMeetingQuery() {
+    this(Engine.SORT_AND_SWEEP);
+  }
+
+  /** Creates a query that uses the given engine to find meeting times. */
+  public FindMeetingQuery(Engine engine) {
+    if (engine == null) {
+      throw new IllegalArgumentException("engine cannot be null");
+    }
+    this.engine = engine;
+  }
+
   /** Finds and returns a collection of non-overlapping time intervals that are
   * each at least as long as needed for the required attendees to have a meeting
   * of the desired length. An empty list is returned if no such times exist.
@@ -29,143 +71,365 @@ public final class FindMeetingQuery {
   * @return          - Collection of non-overlapping time intervals
   */
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
-    List<Event> allEvents                   = new ArrayList(events);
-    Collection<String> allAttendees         = request.getAttendees();
-    Collection<String> allOptionalAttendees = request.getOptionalAttendees();
-    int numAttendees                        = allAttendees.size();
-    int numOptionalAttendees                = allOptionalAttendees.size();
-    long meetingTime                        = request.getDuration();
-
-    // Base Case: No attendees.
-    if (numAttendees == 0 && numOptionalAttendees == 0) {
-        return Arrays.asList(TimeRange.WHOLE_DAY);
-    // Base Case: Invalid meeting time.
-    } else if (meetingTime == 0 || meetingTime > TimeRange.WHOLE_DAY.duration()) {
-        return Arrays.asList();
+    return query(events, request, TimeRange.WHOLE_DAY);
+  }
 
+  /** Finds meeting times inside an arbitrary window, such as the next 14 days, in a single pass.
+  * Times are on the epoch-minute timeline (see {@link TimeRange#getEpochMinute}), so events and
+  * gaps may cross midnight. The same rules apply as for a single day, except that the whole window
+  * takes the place of the day.
+  *
+  * @param events    - Collection of events signifying when an attendee cannot meet
+  * @param request   - Request specifying the meeting's attendees and duration
+  * @param window    - The span of time to search for meeting times
+  *
+  * @return          - Collection of non-overlapping time intervals inside {@code window}
+  */
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request, TimeRange window) {
+    if (engine == Engine.BITSET) {
+        return new BitsetMeetingQuery().query(events, request, window);
+    } else if (engine == Engine.INDEXED) {
+        return query(new BusyIntervalIndex(events), request, window);
     }
-    // Remove events if no attendees are actually going to them.
-    allEvents = removePeopleNotAttending(allEvents, allAttendees, allOptionalAttendees);
 
-    // Create list of events that doesn't consider optional attendees.
-    List<Event> eventsWithoutOptionalAttendees = getEventsWithoutOptionalAttendees(allEvents, allOptionalAttendees);
-
-    // Custom comparator to sort events by start time.
-    Comparator<Event> EventStartTimeComparator
-        = Comparator.comparing(Event::getWhen, (e1, e2) -> {
-            return Long.compare(e1.start(), e2.start());
-        });
+    List<TimeRange> results = new ArrayList<>();
+    query(events, request, window, (start, end) -> results.add(TimeRange.fromStartEnd(start, end, false)));
+    return results;
+  }
 
-    Collections.sort(allEvents, EventStartTimeComparator);
-    Collections.sort(eventsWithoutOptionalAttendees, EventStartTimeComparator);
+  /** Streams meeting times inside {@code window} to {@code consumer} in start order instead of
+  * collecting them. With the sort-and-sweep engine the only allocation is one array of event
+  * boundaries, whatever the size of the calendar; other engines find the times as usual and then
+  * pass them on.
+  *
+  * @param events    - Collection of events signifying when an attendee cannot meet
+  * @param request   - Request specifying the meeting's attendees and duration
+  * @param window    - The span of time to search for meeting times
+  * @param consumer  - Receives each meeting time as a {@code [start, end)} pair
+  *
+  * @return          - Number of meeting times passed to {@code consumer}
+  */
+  public int query(Collection<Event> events, MeetingRequest request, TimeRange window, TimeRangeConsumer consumer) {
+    if (engine != Engine.SORT_AND_SWEEP) {
+        Collection<TimeRange> gaps = query(events, request, window);
+        for (TimeRange gap : gaps) {
+            consumer.accept(gap.start(), gap.end());
+        }
+        return gaps.size();
+    }
 
-    // Find valid gaps if we considered everyone.
-    Collection<TimeRange> gapsConsideringEveryone = findGaps(allEvents, meetingTime, numAttendees + numOptionalAttendees);
+    int baseCase = answerWithoutCalendar(request, window, consumer);
+    if (baseCase >= 0) {
+        return baseCase;
+    }
+    // Membership checks below compare interned attendee IDs instead of hashing names.
+    AttendeeSet attendeeIds         = request.getAttendeeIds();
+    AttendeeSet optionalAttendeeIds = request.getOptionalAttendeeIds();
 
-    if (gapsConsideringEveryone.size() == 0) {
-        // If it's impossible to find any gaps when considering everyone,
-        // find valid gaps without considering optional attendees and return that instead.
-        Collection<TimeRange> gapsWithoutOptional = findGaps(eventsWithoutOptionalAttendees, meetingTime, numAttendees);
-        return gapsWithoutOptional;
-    } else {
-        // If there is at least one valid gap that considers everyone, that is better than
-        // having more valid gaps that exclude optional attendees, so we default to returning gaps
-        // that consider everyone.
-        return gapsConsideringEveryone;
+    // Every relevant event adds a start and an end boundary, packed as
+    // (time << 32) | (isEnd << 1) | isRequired so that sorting puts them in time order with starts
+    // before ends. Events that no one in the request is going to, that don't overlap the window or
+    // that don't last any time are skipped.
+    long[] boundaries = new long[events.size() * 2];
+    int size = 0;
+    for (Event e : events) {
+        TimeRange when = e.getWhen();
+        if (when.duration() <= 0 || !when.overlaps(window)) {
+            continue;
+        }
+        AttendeeSet eventAttendees = e.getAttendeeIds();
+        long required = eventAttendees.intersects(attendeeIds) ? 1 : 0;
+        if (required == 0 && !eventAttendees.intersects(optionalAttendeeIds)) {
+            continue;
+        }
+        size = addBoundaries(boundaries, size, when.start(), when.end(), required);
     }
+    return sweep(boundaries, size, request, window, consumer);
   }
 
-  /** Discard an event if none of the attendees who want to book a meeting are going to it. */
-  private List<Event> removePeopleNotAttending(List<Event> allEvents, Collection<String> allAttendees, Collection<String> allOptionalAttendees) {
-    Iterator<Event> allEventsIter = allEvents.iterator();
+  /** Same as {@link #query(Collection, MeetingRequest, TimeRange, TimeRangeConsumer)}, but reads
+  * the events straight out of a {@link BinaryCalendar} instead of from {@link Event} objects.
+  * Always uses the sort-and-sweep engine.
+  *
+  * @param calendar  - Calendar of events signifying when an attendee cannot meet
+  * @param request   - Request specifying the meeting's attendees and duration
+  * @param window    - The span of time to search for meeting times
+  * @param consumer  - Receives each meeting time as a {@code [start, end)} pair
+  *
+  * @return          - Number of meeting times passed to {@code consumer}
+  */
+  public int query(BinaryCalendar calendar, MeetingRequest request, TimeRange window, TimeRangeConsumer consumer) {
+    int baseCase = answerWithoutCalendar(request, window, consumer);
+    if (baseCase >= 0) {
+        return baseCase;
+    }
+    // People who aren't in the calendar's string table can't be busy, so they are left out.
+    int[] attendeeIds         = calendar.indexesOf(request.getAttendees());
+    int[] optionalAttendeeIds = calendar.indexesOf(request.getOptionalAttendees());
 
-    while (allEventsIter.hasNext()) {
-        Event e = allEventsIter.next();
-        if (eventAttendeeNotMeeting(e, allAttendees, allOptionalAttendees)) {
-            allEventsIter.remove();
+    long[] boundaries = new long[calendar.size() * 2];
+    int size = 0;
+    for (int i = 0; i < calendar.size(); i++) {
+        int start = calendar.start(i);
+        int end   = start + calendar.duration(i);
+        if (start >= end || start >= window.end() || end <= window.start()) {
+            continue;
         }
+        long required = calendar.hasAnyAttendee(i, attendeeIds) ? 1 : 0;
+        if (required == 0 && !calendar.hasAnyAttendee(i, optionalAttendeeIds)) {
+            continue;
+        }
+        size = addBoundaries(boundaries, size, start, end, required);
     }
-    return allEvents;
+    return sweep(boundaries, size, request, window, consumer);
   }
 
-  /** Return `true` if the person attending the event isn't one of the people who wants to book a meeting. */
-  private boolean eventAttendeeNotMeeting(Event e, Collection<String> allAttendees, Collection<String> allOptionalAttendees) {
-    Set<String> attendees = e.getAttendees();
-    
-    for (String s : attendees) {
-        if ( !( allAttendees.contains(s) || allOptionalAttendees.contains(s)) ) {
-            return true;
-        }
+  /** Answers the requests that don't need to look at the calendar: those with no attendees, and
+  * those for a meeting that can't fit in the window. Returns the number of meeting times passed
+  * to {@code consumer}, or -1 if the calendar has to be searched.
+  */
+  private static int answerWithoutCalendar(MeetingRequest request, TimeRange window, TimeRangeConsumer consumer) {
+    long meetingTime = request.getDuration();
+
+    // Base Case: No attendees.
+    if (request.getAttendees().isEmpty() && request.getOptionalAttendees().isEmpty()) {
+        consumer.accept(window.start(), window.end());
+        return 1;
+    // Base Case: Invalid meeting time.
+    } else if (meetingTime == 0 || meetingTime > window.duration()) {
+        return 0;
     }
-    return false;
+    return -1;
   }
 
-  /** Generate list of events that excludes optional attendees. */
-  private List<Event> getEventsWithoutOptionalAttendees(List<Event> allEvents, Collection<String> allOptionalAttendees) {
-    List<Event> eventsWithoutOptionalAttendees = new ArrayList(allEvents);
-    Iterator<Event> optionalEventsIter = eventsWithoutOptionalAttendees.iterator();
-    
-    while(optionalEventsIter.hasNext()) {
-        Event e = optionalEventsIter.next();
-        for (String s : e.getAttendees()) {
-            if (allOptionalAttendees.contains(s)) {
-                optionalEventsIter.remove();
-                break;
+  /** Adds the start and end boundaries of an event, packed as described in
+  * {@link #query(Collection, MeetingRequest, TimeRange, TimeRangeConsumer)}. Returns the new size.
+  */
+  private static int addBoundaries(long[] boundaries, int size, int start, int end, long required) {
+    boundaries[size++] = ((long) start << 32) | required;
+    boundaries[size++] = ((long) end << 32) | 2 | required;
+    return size;
+  }
+
+  /** Sorts the first {@code size} event boundaries and sweeps over them, passing the gaps for the
+  * request to {@code consumer}. Returns the number of gaps passed on.
+  */
+  private static int sweep(long[] boundaries, int size, MeetingRequest request, TimeRange window, TimeRangeConsumer consumer) {
+    int numAttendees = request.getAttendees().size();
+    long meetingTime = request.getDuration();
+    Arrays.sort(boundaries, 0, size);
+
+    // Sweep once, tracking how many events are in progress for both views: everyone, and only the
+    // required attendees. Gaps for everyone go straight to the consumer. Gaps for the required
+    // attendees are only needed if there are none for everyone, so they are kept in the front of
+    // {@code boundaries}: a gap is only found on reaching a start boundary, so there are never
+    // more gaps than boundaries already read.
+    int gapsConsideringEveryone = 0;
+    int gapsWithoutOptional     = 0;
+    int busyEveryone            = 0;
+    int busyRequired            = 0;
+    int freeSinceEveryone       = window.start();
+    int freeSinceRequired       = window.start();
+
+    for (int i = 0; i < size; i++) {
+        long boundary    = boundaries[i];
+        int time         = Math.max(window.start(), Math.min(window.end(), (int) (boundary >> 32)));
+        boolean isEnd    = (boundary & 2) != 0;
+        boolean required = (boundary & 1) != 0;
+
+        if (!isEnd) {
+            if (busyEveryone++ == 0 && isValidGap(freeSinceEveryone, time, meetingTime)) {
+                consumer.accept(freeSinceEveryone, time);
+                gapsConsideringEveryone++;
+            }
+            if (required && busyRequired++ == 0 && isValidGap(freeSinceRequired, time, meetingTime)) {
+                boundaries[gapsWithoutOptional++] = pack(freeSinceRequired, time);
+            }
+        } else {
+            if (--busyEveryone == 0) {
+                freeSinceEveryone = time;
+            }
+            if (required && --busyRequired == 0) {
+                freeSinceRequired = time;
             }
         }
     }
-    return eventsWithoutOptionalAttendees;
+
+    // Last gap (after the end of the latest event).
+    if (isValidGap(freeSinceEveryone, window.end(), meetingTime)) {
+        consumer.accept(freeSinceEveryone, window.end());
+        gapsConsideringEveryone++;
+    }
+
+    // If there is at least one valid gap that considers everyone, that is better than having more
+    // valid gaps that exclude optional attendees. Otherwise fall back to the required attendees,
+    // if there are any.
+    if (gapsConsideringEveryone > 0 || numAttendees == 0) {
+        return gapsConsideringEveryone;
+    }
+    for (int i = 0; i < gapsWithoutOptional; i++) {
+        consumer.accept((int) (boundaries[i] >> 32), (int) boundaries[i]);
+    }
+    if (isValidGap(freeSinceRequired, window.end(), meetingTime)) {
+        consumer.accept(freeSinceRequired, window.end());
+        gapsWithoutOptional++;
+    }
+    return gapsWithoutOptional;
   }
 
-  /** Find all gaps in a given collection of event times. */
-  private Collection<TimeRange> findGaps(List<Event> events, long meetingTime, int numAttendees) {
-    // Track latest end time of any event in case the event with
-    // the latest end time comes before the last event in the event List.
-    //
-    // Example: The last free gap for events ([5, 20] , [10, 15])
-    // should be [20, END_OF_DAY], not [15, END_OF_DAY].
-    int endOfLatestEvent = 0;
+  /** Finds meeting times using a prebuilt index of everyone's busy times. Only the busy times of
+  * the people in {@code request} are read, so the cost depends on the size of the meeting rather
+  * than the size of the calendar.
+  *
+  * @param index     - Busy times of every attendee on the calendar
+  * @param request   - Request specifying the meeting's attendees and duration
+  *
+  * @return          - Collection of non-overlapping time intervals
+  */
+  public Collection<TimeRange> query(BusyIntervalIndex index, MeetingRequest request) {
+    return index.query(request, TimeRange.WHOLE_DAY);
+  }
 
-    TimeRange gap;
-    Collection<TimeRange> results = new ArrayList<>();
+  /** Finds meeting times inside {@code window} using a prebuilt index of everyone's busy times.
+  *
+  * @param index     - Busy times of every attendee on the calendar
+  * @param request   - Request specifying the meeting's attendees and duration
+  * @param window    - The span of time to search for meeting times
+  *
+  * @return          - Collection of non-overlapping time intervals inside {@code window}
+  */
+  public Collection<TimeRange> query(BusyIntervalIndex index, MeetingRequest request, TimeRange window) {
+    return index.query(request, window);
+  }
 
-    // If no one wants to meet, we don't need to find the gaps in their schedules.
-    if (numAttendees == 0) {
-        return results;
+  /** Finds the meeting times that work for every required attendee and for as many optional
+  * attendees as possible. Unlike {@link #query}, optional attendees are not all-or-nothing: if
+  * there is no time that suits all of them, the times that suit the largest group of them are
+  * returned, along with who is in that group. Always uses a {@link BusyIntervalIndex}, whatever
+  * the engine.
+  *
+  * @param events    - Collection of events signifying when an attendee cannot meet
+  * @param request   - Request specifying the meeting's attendees and duration
+  *
+  * @return          - Slots that suit the most optional attendees, sorted by start time
+  */
+  public List<MeetingSlot> queryMaximizingOptional(Collection<Event> events, MeetingRequest request) {
+    return queryMaximizingOptional(events, request, TimeRange.WHOLE_DAY);
+  }
+
+  /** Same as {@link #queryMaximizingOptional(Collection, MeetingRequest)}, but searches inside
+  * {@code window}.
+  */
+  public List<MeetingSlot> queryMaximizingOptional(Collection<Event> events, MeetingRequest request, TimeRange window) {
+    Set<String> invited = new HashSet<>(request.getAttendees());
+    invited.addAll(request.getOptionalAttendees());
+    return queryMaximizingOptional(new BusyIntervalIndex(events, invited), request, window);
+  }
+
+  /** Same as {@link #queryMaximizingOptional(Collection, MeetingRequest, TimeRange)}, but reads
+  * busy times from a prebuilt index.
+  */
+  public List<MeetingSlot> queryMaximizingOptional(BusyIntervalIndex index, MeetingRequest request, TimeRange window) {
+    return new OptionalAttendeeSweep().query(index, request, window);
+  }
+
+  /** Answers a batch of requests against the same events. The events are sorted and merged into
+  * per-attendee busy times once, and those busy times are shared by every request that invites
+  * the same people. Batches always use a {@link BusyIntervalIndex}, whatever the engine.
+  *
+  * @param events    - Collection of events signifying when an attendee cannot meet
+  * @param requests  - Requests to answer
+  *
+  * @return          - One collection of time intervals per request, in the same order
+  */
+  public List<Collection<TimeRange>> queryAll(Collection<Event> events, List<MeetingRequest> requests) {
+    return queryAll(events, requests, TimeRange.WHOLE_DAY, null);
+  }
+
+  /** Same as {@link #queryAll(Collection, List)}, but answers the requests in parallel on
+  * {@code pool}.
+  */
+  public List<Collection<TimeRange>> queryAll(Collection<Event> events, List<MeetingRequest> requests, ForkJoinPool pool) {
+    return queryAll(events, requests, TimeRange.WHOLE_DAY, pool);
+  }
+
+  /** Answers a batch of requests against the same events inside {@code window}.
+  *
+  * @param events    - Collection of events signifying when an attendee cannot meet
+  * @param requests  - Requests to answer
+  * @param window    - The span of time to search for meeting times
+  * @param pool      - Pool to answer the requests on in parallel, or null to answer them
+  *                    one after another on the calling thread
+  *
+  * @return          - One collection of time intervals per request, in the same order
+  */
+  public List<Collection<TimeRange>> queryAll(Collection<Event> events, List<MeetingRequest> requests, TimeRange window, ForkJoinPool pool) {
+    // Only index the people that at least one request asks about.
+    Set<String> invited = new HashSet<>();
+    for (MeetingRequest request : requests) {
+        invited.addAll(request.getAttendees());
+        invited.addAll(request.getOptionalAttendees());
     }
+    BusyIntervalIndex index = new BusyIntervalIndex(events, invited);
 
-    for (int i = 0; i < events.size(); i++) {        
-        if (i == 0) {
-            // First gap (before the earliest event).
-            gap = TimeRange.fromStartEnd(TimeRange.START_OF_DAY, events.get(i).getWhen().start(), false);
-        } else {
-            // Gaps inbetween events.
-            gap = TimeRange.fromStartEnd(events.get(i-1).getWhen().end(), events.get(i).getWhen().start(), false);
+    if (pool == null) {
+        List<Collection<TimeRange>> results = new ArrayList<>(requests.size());
+        for (MeetingRequest request : requests) {
+            results.add(index.query(request, window));
         }
+        return results;
+    }
 
-        // Validate gap.
-        if (isValidGap(gap, meetingTime, endOfLatestEvent)) {
-            results.add(gap);
-        }
+    List<Collection<TimeRange>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+    pool.invoke(new BatchTask(index, requests, window, results, 0, requests.size()));
+    return results;
+  }
 
-        // Update latest end time of any event.
-        if (i != events.size()) {
-            endOfLatestEvent = endOfLatestEvent > events.get(i).getWhen().end() ? endOfLatestEvent : events.get(i).getWhen().end();
-        }
+  /** Answers a slice of a batch, splitting it in half until the slices are small. Each task only
+  * writes its own indexes of {@code results}, and joining the task makes the writes visible.
+  */
+  private static final class BatchTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private static final int SEQUENTIAL_THRESHOLD = 16;
+
+    private final BusyIntervalIndex index;
+    private final List<MeetingRequest> requests;
+    private final TimeRange window;
+    private final List<Collection<TimeRange>> results;
+    private final int from;
+    private final int to;
+
+    BatchTask(BusyIntervalIndex index, List<MeetingRequest> requests, TimeRange window, List<Collection<TimeRange>> results, int from, int to) {
+        this.index = index;
+        this.requests = requests;
+        this.window = window;
+        this.results = results;
+        this.from = from;
+        this.to = to;
     }
 
-    // Last gap (after the end of the latest event).
-    gap = TimeRange.fromStartEnd(endOfLatestEvent, TimeRange.END_OF_DAY, true);
-    if (isValidGap(gap, meetingTime, endOfLatestEvent)) {
-        results.add(gap);
+    @Override
+    protected void compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                results.set(i, index.query(requests.get(i), window));
+            }
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        invokeAll(new BatchTask(index, requests, window, results, from, middle),
+            new BatchTask(index, requests, window, results, middle, to));
     }
-    return results;
   }
 
   /** Return `true` if a gap is "well-constructed." */
-  private boolean isValidGap(TimeRange gap, long meetingTime, int endOfLatestEvent) {
-    return gap.start() < gap.end()
-        && gap.duration() >= meetingTime
-        && gap.start() >= endOfLatestEvent;
-    }
+  private static boolean isValidGap(int start, int end, long meetingTime) {
+    return start < end && end - start >= meetingTime;
+  }
+
+  /** Packs a gap into a single {@code long} as {@code (start << 32) | end}. */
+  private static long pack(int start, int end) {
+    return ((long) start << 32) | (end & 0xFFFFFFFFL);
+  }
 }
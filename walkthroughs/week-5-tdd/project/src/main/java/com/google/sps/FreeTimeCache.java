@@ -0,0 +1,249 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Remembers the free times of attendee groups that are queried over and over, such as a team's
+ * stand-up roster. Free times are cached without a minimum length, so a repeat query with any
+ * duration only has to filter the cached gaps by length.
+ *
+ * <p>The cache owns the calendar it answers for. Changing an event through {@link #addEvent},
+ * {@link #removeEvent} or {@link #updateEvent} drops exactly the cached entries that invite one of
+ * that event's attendees. At most {@code maxEntries} groups are kept, and the least recently used
+ * group is dropped first. All methods are thread-safe.
+ */
+public final class FreeTimeCache {
+  private final BusyIntervalIndex index;
+  private final int maxEntries;
+
+  // Cached free times, in least-recently-used order.
+  private final LinkedHashMap<Key, FreeTimes> entries;
+
+  // For each attendee ID, the cached entries that invite that attendee.
+  private final Map<Integer, Set<Key>> keysByAttendee = new HashMap<>();
+
+  private long hitCount;
+  private long missCount;
+
+  /**
+   * Creates a cache over {@code events}.
+   *
+   * @param events The events on the calendar. Must be non-null.
+   * @param maxEntries The most attendee groups to remember. Must be positive.
+   */
+  public FreeTimeCache(Collection<Event> events, int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+
+    this.index = new BusyIntervalIndex(events);
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<Key, FreeTimes>(16, 0.75f, /* accessOrder= */ true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, FreeTimes> eldest) {
+        if (size() <= FreeTimeCache.this.maxEntries) {
+          return false;
+        }
+        unlink(eldest.getKey());
+        return true;
+      }
+    };
+  }
+
+  /** Finds meeting times for {@code request} during the day. See {@link FindMeetingQuery#query}. */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    return query(request, TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Finds meeting times for {@code request} inside {@code window}, using cached free times for the
+   * request's attendees if there are any. Gives the same answer as {@link FindMeetingQuery#query}.
+   */
+  public synchronized Collection<TimeRange> query(MeetingRequest request, TimeRange window) {
+    long meetingTime = request.getDuration();
+    if (request.getAttendees().isEmpty() && request.getOptionalAttendees().isEmpty()) {
+      List<TimeRange> wholeWindow = new ArrayList<>();
+      wholeWindow.add(window);
+      return wholeWindow;
+    } else if (meetingTime == 0 || meetingTime > window.duration()) {
+      return new ArrayList<>();
+    }
+
+    Key key = new Key(request.getAttendeeIds(), request.getOptionalAttendeeIds(), window);
+    FreeTimes entry = entries.get(key);
+    if (entry == null) {
+      missCount++;
+      entry = load(request, window);
+      link(key);
+      entries.put(key, entry);
+    } else {
+      hitCount++;
+    }
+
+    List<TimeRange> gaps = atLeast(entry.everyone, meetingTime);
+    if (gaps.isEmpty() && !request.getAttendees().isEmpty()) {
+      gaps = atLeast(entry.required, meetingTime);
+    }
+    return gaps;
+  }
+
+  /** Adds an event to the calendar and drops the cached free times of its attendees. */
+  public synchronized void addEvent(Event event) {
+    index.add(event);
+    invalidate(event);
+  }
+
+  /**
+   * Removes an event from the calendar and drops the cached free times of its attendees. Returns
+   * {@code false} if the event was not on the calendar.
+   */
+  public synchronized boolean removeEvent(Event event) {
+    boolean removed = index.remove(event);
+    if (removed) {
+      invalidate(event);
+    }
+    return removed;
+  }
+
+  /**
+   * Replaces {@code oldEvent} with {@code newEvent}. Events are read-only, so this is how an event
+   * is moved or has its attendees changed.
+   */
+  public synchronized void updateEvent(Event oldEvent, Event newEvent) {
+    removeEvent(oldEvent);
+    addEvent(newEvent);
+  }
+
+  /** Returns the number of queries answered from cached free times. */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /** Returns the number of queries that had to compute free times. */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /** Returns the number of attendee groups currently cached. */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private FreeTimes load(MeetingRequest request, TimeRange window) {
+    // A minimum length of one minute keeps every gap, whatever duration is asked for later.
+    List<String> everyone = new ArrayList<>(request.getAttendees());
+    everyone.addAll(request.getOptionalAttendees());
+    List<TimeRange> everyoneFree = index.freeTimes(everyone, 1, window);
+    List<TimeRange> requiredFree = request.getOptionalAttendees().isEmpty()
+        ? everyoneFree
+        : index.freeTimes(request.getAttendees(), 1, window);
+    return new FreeTimes(everyoneFree, requiredFree);
+  }
+
+  private void invalidate(Event event) {
+    AttendeeSet attendees = event.getAttendeeIds();
+    for (int i = 0; i < attendees.size(); i++) {
+      Set<Key> keys = keysByAttendee.get(attendees.get(i));
+      if (keys == null) {
+        continue;
+      }
+      for (Key key : new ArrayList<>(keys)) {
+        entries.remove(key);
+        unlink(key);
+      }
+    }
+  }
+
+  /** Records {@code key} under each attendee it invites. */
+  private void link(Key key) {
+    for (AttendeeSet ids : new AttendeeSet[] {key.attendees, key.optionalAttendees}) {
+      for (int i = 0; i < ids.size(); i++) {
+        keysByAttendee.computeIfAbsent(ids.get(i), id -> new HashSet<>()).add(key);
+      }
+    }
+  }
+
+  /** Undoes {@link #link}. */
+  private void unlink(Key key) {
+    for (AttendeeSet ids : new AttendeeSet[] {key.attendees, key.optionalAttendees}) {
+      for (int i = 0; i < ids.size(); i++) {
+        Set<Key> keys = keysByAttendee.get(ids.get(i));
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+          keysByAttendee.remove(ids.get(i));
+        }
+      }
+    }
+  }
+
+  private static List<TimeRange> atLeast(List<TimeRange> gaps, long meetingTime) {
+    List<TimeRange> results = new ArrayList<>();
+    for (TimeRange gap : gaps) {
+      if (gap.duration() >= meetingTime) {
+        results.add(gap);
+      }
+    }
+    return results;
+  }
+
+  /** A normalized attendee group plus the window it was queried for. */
+  private static final class Key {
+    private final AttendeeSet attendees;
+    private final AttendeeSet optionalAttendees;
+    private final TimeRange window;
+
+    Key(AttendeeSet attendees, AttendeeSet optionalAttendees, TimeRange window) {
+      this.attendees = attendees;
+      this.optionalAttendees = optionalAttendees;
+      this.window = window;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return attendees.equals(key.attendees)
+          && optionalAttendees.equals(key.optionalAttendees)
+          && window.equals(key.window);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(attendees, optionalAttendees, window);
+    }
+  }
+
+  /** Free times with and without the optional attendees, with no minimum length. */
+  private static final class FreeTimes {
+    private final List<TimeRange> everyone;
+    private final List<TimeRange> required;
+
+    FreeTimes(List<TimeRange> everyone, List<TimeRange> required) {
+      this.everyone = everyone;
+      this.required = required;
+    }
+  }
+}
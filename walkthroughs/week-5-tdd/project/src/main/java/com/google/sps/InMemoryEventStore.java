@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An {@link EventStore} that only lives in memory. Writers copy the current snapshot, change the
+ * copy and swap it in with a compare-and-set, retrying if another writer got there first. Readers
+ * just read the current reference, so they never wait for writers.
+ */
+public final class InMemoryEventStore implements EventStore {
+  private final AtomicReference<CalendarSnapshot> current;
+
+  /** Creates an empty store. */
+  public InMemoryEventStore() {
+    current = new AtomicReference<>(CalendarSnapshot.EMPTY);
+  }
+
+  /**
+   * Creates a store containing {@code events}.
+   *
+   * @param events The starting events. Must be non-null.
+   */
+  public InMemoryEventStore(Collection<Event> events) {
+    current = new AtomicReference<>(CalendarSnapshot.of(0, events));
+  }
+
+  @Override
+  public CalendarSnapshot snapshot() {
+    return current.get();
+  }
+
+  @Override
+  public void add(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    CalendarSnapshot snapshot;
+    do {
+      snapshot = current.get();
+    } while (!current.compareAndSet(snapshot, snapshot.plus(event)));
+  }
+
+  @Override
+  public boolean remove(Event event) {
+    CalendarSnapshot snapshot;
+    CalendarSnapshot updated;
+    do {
+      snapshot = current.get();
+      updated = snapshot.minus(event);
+      if (updated == snapshot) {
+        return false;
+      }
+    } while (!current.compareAndSet(snapshot, updated));
+    return true;
+  }
+}
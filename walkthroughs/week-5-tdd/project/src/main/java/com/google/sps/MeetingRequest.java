@@ -30,6 +30,15 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // IDs of the attendees, computed on first use. Transient so that they are not part of the JSON
+  // form of a request, which also means Gson leaves them null. Names that weren't registered yet
+  // are left out, so each set also records the registry size it was looked up at, and is looked up
+  // again once more names have been registered.
+  private transient AttendeeSet attendeeIds;
+  private transient AttendeeSet optionalAttendeeIds;
+  private transient int attendeeIdsRegistrySize;
+  private transient int optionalAttendeeIdsRegistrySize;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -55,7 +64,36 @@ public final class MeetingRequest {
   public void addOptionalAttendee(String attendee) {
     if (!attendees.contains(attendee)) {
       optional_attendees.add(attendee);
+      optionalAttendeeIds = null;
+    }
+  }
+
+  /**
+   * Returns the IDs of the people who are required to attend this meeting, as found in the global
+   * {@link AttendeeRegistry}. People who aren't in the registry attend no events, so they are left
+   * out rather than added to it.
+   */
+  public AttendeeSet getAttendeeIds() {
+    int registrySize = AttendeeRegistry.global().size();
+    if (attendeeIds == null || attendeeIdsRegistrySize != registrySize) {
+      attendeeIds = AttendeeSet.lookup(attendees, AttendeeRegistry.global());
+      attendeeIdsRegistrySize = registrySize;
+    }
+    return attendeeIds;
+  }
+
+  /**
+   * Returns the IDs of the people who are optional to attend this meeting, as found in the global
+   * {@link AttendeeRegistry}. People who aren't in the registry are left out, as in
+   * {@link #getAttendeeIds}.
+   */
+  public AttendeeSet getOptionalAttendeeIds() {
+    int registrySize = AttendeeRegistry.global().size();
+    if (optionalAttendeeIds == null || optionalAttendeeIdsRegistrySize != registrySize) {
+      optionalAttendeeIds = AttendeeSet.lookup(optional_attendees, AttendeeRegistry.global());
+      optionalAttendeeIdsRegistrySize = registrySize;
     }
+    return optionalAttendeeIds;
   }
 
   /**
@@ -0,0 +1,84 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A time that works for a meeting's required attendees, together with the optional attendees who
+ * can also make it. Any meeting of the requested length that fits inside {@code when} can be
+ * attended by all of them. Slots are considered read-only.
+ */
+public final class MeetingSlot {
+  private final TimeRange when;
+  private final Set<String> optionalAttendees;
+
+  /**
+   * Creates a new slot.
+   *
+   * @param when The span of time the meeting can be placed in. Must be non-null.
+   * @param optionalAttendees The optional attendees who are free for any meeting placed inside
+   *     {@code when}. Must be non-null.
+   */
+  public MeetingSlot(TimeRange when, Collection<String> optionalAttendees) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (optionalAttendees == null) {
+      throw new IllegalArgumentException(
+          "optionalAttendees cannot be null. Use empty array instead.");
+    }
+
+    this.when = when;
+    this.optionalAttendees = Collections.unmodifiableSet(new HashSet<>(optionalAttendees));
+  }
+
+  /**
+   * Returns the span of time the meeting can be placed in.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns a read-only set of the optional attendees who can make a meeting in this slot.
+   */
+  public Set<String> getOptionalAttendees() {
+    return optionalAttendees;
+  }
+
+  @Override
+  public int hashCode() {
+    return when.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof MeetingSlot && equals(this, (MeetingSlot) other);
+  }
+
+  private static boolean equals(MeetingSlot a, MeetingSlot b) {
+    return a.when.equals(b.when) && a.optionalAttendees.equals(b.optionalAttendees);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s %s", when, optionalAttendees);
+  }
+}
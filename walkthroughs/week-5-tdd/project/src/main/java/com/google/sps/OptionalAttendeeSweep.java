@@ -0,0 +1,181 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the meeting times that the largest number of optional attendees can make, while still
+ * working for every required attendee.
+ *
+ * <p>Rather than sweeping over meeting times, this sweeps over possible start times. An optional
+ * attendee who is busy during {@code [start, end)} can't make a meeting of length {@code d} that
+ * starts anywhere in {@code (start - d, end)}, so each busy time is widened into the start times
+ * it rules out. Sweeping over the boundaries of the widened times keeps a running count of how
+ * many optional attendees are ruled out, and the start times with the lowest count are the ones
+ * that suit the most people. This takes O(n log n) for n busy times, however many optional
+ * attendees there are.
+ */
+final class OptionalAttendeeSweep {
+  /**
+   * Returns the slots inside {@code window} that suit the required attendees and as many of the
+   * optional attendees as possible. Slots that suit a different group of the same size are
+   * reported separately and may overlap. If no optional attendee can make it, the slots that suit
+   * the required attendees are returned; if there are no required attendees either, nothing is.
+   */
+  List<MeetingSlot> query(BusyIntervalIndex index, MeetingRequest request, TimeRange window) {
+    Collection<String> attendees = request.getAttendees();
+    long meetingTime = request.getDuration();
+
+    // An optional attendee who is also required is treated as required.
+    Set<String> optionalSet = new LinkedHashSet<>(request.getOptionalAttendees());
+    optionalSet.removeAll(attendees);
+    String[] optional = optionalSet.toArray(new String[0]);
+
+    if (attendees.isEmpty() && optional.length == 0) {
+      return new ArrayList<>(Arrays.asList(new MeetingSlot(window, optionalSet)));
+    } else if (meetingTime == 0 || meetingTime > window.duration()) {
+      return new ArrayList<>();
+    }
+
+    int duration = (int) meetingTime;
+    List<TimeRange> gaps = attendees.isEmpty()
+        ? Arrays.asList(window)
+        : index.freeTimes(attendees, meetingTime, window);
+    if (gaps.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    long[] points = boundaries(index, optional, duration, window);
+    int fewestBlocked = sweep(points, gaps, duration, optional, Integer.MAX_VALUE, null);
+
+    List<MeetingSlot> slots = new ArrayList<>();
+    if (attendees.isEmpty() && fewestBlocked == optional.length) {
+      return slots;
+    }
+    sweep(points, gaps, duration, optional, fewestBlocked, slots);
+    return slots;
+  }
+
+  /**
+   * Returns the boundaries of the start times each optional attendee rules out, sorted by time.
+   * Each boundary is packed into a {@code long} as {@code (time << 32) | attendee}, so sorting
+   * the array sorts by time.
+   */
+  private static long[] boundaries(
+      BusyIntervalIndex index, String[] optional, int duration, TimeRange window) {
+    List<int[]> busyLists = new ArrayList<>(optional.length);
+    int total = 0;
+    for (String attendee : optional) {
+      int[] busy = index.busyFor(attendee);
+      busyLists.add(busy);
+      total += busy.length;
+    }
+
+    long[] points = new long[total];
+    int size = 0;
+    for (int attendee = 0; attendee < optional.length; attendee++) {
+      int[] busy = busyLists.get(attendee);
+      int blockedStart = 0;
+      int blockedEnd = Integer.MIN_VALUE;
+      for (int i = 0; i < busy.length; i += 2) {
+        if (busy[i + 1] <= window.start() || busy[i] >= window.end()) {
+          continue;
+        }
+
+        // Widening can make neighbouring busy times overlap, so merge them again. That way an
+        // attendee's ruled out start times never overlap and each boundary flips their state.
+        int start = busy[i] - duration + 1;
+        if (start <= blockedEnd) {
+          blockedEnd = busy[i + 1];
+          continue;
+        }
+        if (blockedEnd != Integer.MIN_VALUE) {
+          points[size++] = pack(blockedStart, attendee);
+          points[size++] = pack(blockedEnd, attendee);
+        }
+        blockedStart = start;
+        blockedEnd = busy[i + 1];
+      }
+      if (blockedEnd != Integer.MIN_VALUE) {
+        points[size++] = pack(blockedStart, attendee);
+        points[size++] = pack(blockedEnd, attendee);
+      }
+    }
+
+    Arrays.sort(points, 0, size);
+    return Arrays.copyOf(points, size);
+  }
+
+  private static long pack(int time, int attendee) {
+    return ((long) time << 32) | attendee;
+  }
+
+  /**
+   * Walks the start times allowed by {@code gaps} in order, keeping track of which optional
+   * attendees are ruled out. Returns the lowest number of ruled out attendees seen. If
+   * {@code slots} is non-null, also adds a slot for every run of start times where exactly
+   * {@code target} attendees are ruled out.
+   */
+  private static int sweep(
+      long[] points,
+      List<TimeRange> gaps,
+      int duration,
+      String[] optional,
+      int target,
+      List<MeetingSlot> slots) {
+    boolean[] blocked = new boolean[optional.length];
+    int blockedCount = 0;
+    int fewestBlocked = Integer.MAX_VALUE;
+    int next = 0;
+
+    for (TimeRange gap : gaps) {
+      // A meeting must start early enough to end by the end of the gap.
+      int time = gap.start();
+      int lastStart = gap.end() - duration + 1;
+
+      while (time < lastStart) {
+        while (next < points.length && (int) (points[next] >> 32) <= time) {
+          int attendee = (int) points[next++];
+          blocked[attendee] = !blocked[attendee];
+          blockedCount += blocked[attendee] ? 1 : -1;
+        }
+
+        // Nobody's state changes until the next boundary, so every start time up to it suits
+        // the same group.
+        int runEnd =
+            next < points.length ? Math.min(lastStart, (int) (points[next] >> 32)) : lastStart;
+        fewestBlocked = Math.min(fewestBlocked, blockedCount);
+        if (slots != null && blockedCount == target) {
+          List<String> available = new ArrayList<>(optional.length - blockedCount);
+          for (int attendee = 0; attendee < optional.length; attendee++) {
+            if (!blocked[attendee]) {
+              available.add(optional[attendee]);
+            }
+          }
+          TimeRange when = TimeRange.fromStartEnd(time, runEnd - 1 + duration, false);
+          slots.add(new MeetingSlot(when, available));
+        }
+        time = runEnd;
+      }
+    }
+    return fewestBlocked;
+  }
+}
@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import java.time.LocalDate;
 import java.util.Comparator;
 
 /**
@@ -21,10 +22,12 @@ import java.util.Comparator;
  * providing methods to make ranges easier to work with (e.g. {@code overlaps}).
  */
 public final class TimeRange {
+  public static final int MINUTES_PER_DAY = 24 * 60;
+
   public static final int START_OF_DAY = getTimeInMinutes(0, 0);
   public static final int END_OF_DAY = getTimeInMinutes(23, 59);
 
-  public static final TimeRange WHOLE_DAY = new TimeRange(0, 24 * 60);
+  public static final TimeRange WHOLE_DAY = new TimeRange(0, MINUTES_PER_DAY);
 
   /**
    * A comparator for sorting ranges by their start time in ascending order.
@@ -127,7 +130,7 @@ public final class TimeRange {
 
   @Override
   public int hashCode() {
-    return Long.hashCode(start) ^ Long.hashCode(duration);
+    return 31 * start + duration;
   }
 
   @Override
@@ -168,6 +171,32 @@ public final class TimeRange {
     return (hours * 60) + minutes;
   }
 
+  /**
+   * Returns the number of minutes between the start of 1970-01-01 and {@code hours:minutes} on
+   * {@code date}. Times on this epoch-minute timeline can be used to build ranges that span more
+   * than one day. Day 1970-01-01 lines up with the single-day times from
+   * {@link #getTimeInMinutes(int, int)}.
+   */
+  public static int getEpochMinute(LocalDate date, int hours, int minutes) {
+    long epochMinute = date.toEpochDay() * MINUTES_PER_DAY + getTimeInMinutes(hours, minutes);
+    if (epochMinute < Integer.MIN_VALUE || epochMinute > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Date is too far from 1970-01-01: " + date);
+    }
+    return (int) epochMinute;
+  }
+
+  /**
+   * Creates a {@code TimeRange} on the epoch-minute timeline covering {@code days} whole days,
+   * starting at the beginning of {@code firstDay}.
+   */
+  public static TimeRange fromDays(LocalDate firstDay, int days) {
+    if (days < 0) {
+      throw new IllegalArgumentException("days cannot be negative");
+    }
+    return fromStartEnd(
+        getEpochMinute(firstDay, 0, 0), getEpochMinute(firstDay.plusDays(days), 0, 0), false);
+  }
+
   /**
    * Creates a {@code TimeRange} from {@code start} to {@code end}. Whether or not {@code end} is
    * included in the range will depend on {@code inclusive}. If {@code inclusive} is {@code true},
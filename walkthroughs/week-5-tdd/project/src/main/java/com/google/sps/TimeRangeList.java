@@ -0,0 +1,347 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A growable list of time ranges kept as two parallel {@code int} arrays of starts and exclusive
+ * ends, so that holding, sorting and combining ranges doesn't create a {@link TimeRange} per range.
+ * Set operations treat the list as the set of minutes it covers.
+ *
+ * <p>The list can be passed to
+ * {@link FindMeetingQuery#query(Collection, MeetingRequest, TimeRange, FindMeetingQuery.TimeRangeConsumer)}
+ * to collect meeting times, and written out with {@link #writeJson} in the same form Gson uses for
+ * a list of {@link TimeRange}.
+ */
+public final class TimeRangeList implements FindMeetingQuery.TimeRangeConsumer {
+  private static final int DEFAULT_CAPACITY = 8;
+
+  private int[] starts;
+  private int[] ends;
+  private int size;
+
+  /** Creates an empty list. */
+  public TimeRangeList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /** Creates an empty list with room for {@code capacity} ranges before it has to grow. */
+  public TimeRangeList(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+    starts = new int[capacity];
+    ends = new int[capacity];
+  }
+
+  /** Creates a list holding the same ranges as {@code ranges}, in the same order. */
+  public static TimeRangeList of(Collection<TimeRange> ranges) {
+    TimeRangeList list = new TimeRangeList(ranges.size());
+    for (TimeRange range : ranges) {
+      list.add(range.start(), range.end());
+    }
+    return list;
+  }
+
+  /** Adds {@code [start, end)} to the end of the list. */
+  public void add(int start, int end) {
+    if (end < start) {
+      throw new IllegalArgumentException("end cannot come before start");
+    }
+    if (size == starts.length) {
+      int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+    }
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  /** Same as {@link #add}, so that the list can collect the results of a query. */
+  @Override
+  public void accept(int start, int end) {
+    add(start, end);
+  }
+
+  /** Returns the number of ranges in the list. */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes every range, keeping the arrays for reuse. */
+  public void clear() {
+    size = 0;
+  }
+
+  /** Returns the start of the range at {@code index}. */
+  public int start(int index) {
+    checkIndex(index);
+    return starts[index];
+  }
+
+  /** Returns the exclusive end of the range at {@code index}. */
+  public int end(int index) {
+    checkIndex(index);
+    return ends[index];
+  }
+
+  /** Returns the length of the range at {@code index} in minutes. */
+  public int duration(int index) {
+    checkIndex(index);
+    return ends[index] - starts[index];
+  }
+
+  /** Returns the range at {@code index} as a {@link TimeRange}. */
+  public TimeRange get(int index) {
+    checkIndex(index);
+    return TimeRange.fromStartEnd(starts[index], ends[index], false);
+  }
+
+  /** Returns the ranges as a list of {@link TimeRange}. */
+  public List<TimeRange> toList() {
+    List<TimeRange> ranges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ranges.add(TimeRange.fromStartEnd(starts[i], ends[i], false));
+    }
+    return ranges;
+  }
+
+  /** Sorts the ranges by start time, then by end time, without allocating. */
+  public void sort() {
+    // Heapsort: in place and O(n log n) in the worst case.
+    for (int i = size / 2 - 1; i >= 0; i--) {
+      siftDown(i, size);
+    }
+    for (int end = size - 1; end > 0; end--) {
+      swap(0, end);
+      siftDown(0, end);
+    }
+  }
+
+  /**
+   * Sorts the ranges and merges any that overlap or touch, and drops empty ranges. Afterwards the
+   * ranges are sorted and separated by at least one free minute.
+   */
+  public void normalize() {
+    if (!isSorted()) {
+      sort();
+    }
+
+    int merged = 0;
+    for (int i = 0; i < size; i++) {
+      if (starts[i] == ends[i]) {
+        continue;
+      }
+      if (merged > 0 && starts[i] <= ends[merged - 1]) {
+        ends[merged - 1] = Math.max(ends[merged - 1], ends[i]);
+      } else {
+        starts[merged] = starts[i];
+        ends[merged] = ends[i];
+        merged++;
+      }
+    }
+    size = merged;
+  }
+
+  /** Replaces this list with the minutes covered by either list. Normalizes both lists. */
+  public void union(TimeRangeList other) {
+    other.normalize();
+    // Read up front, since other's size grows with this one's when other == this.
+    int otherSize = other.size;
+    for (int i = 0; i < otherSize; i++) {
+      add(other.starts[i], other.ends[i]);
+    }
+    normalize();
+  }
+
+  /** Replaces this list with the minutes covered by both lists. Normalizes both lists. */
+  public void intersect(TimeRangeList other) {
+    normalize();
+    other.normalize();
+
+    // A range can overlap several ranges of the other list, so the result can be longer than
+    // either list and is built separately.
+    TimeRangeList result = new TimeRangeList(Math.max(size, other.size));
+    int i = 0;
+    int j = 0;
+    while (i < size && j < other.size) {
+      int start = Math.max(starts[i], other.starts[j]);
+      int end = Math.min(ends[i], other.ends[j]);
+      if (start < end) {
+        result.add(start, end);
+      }
+      if (ends[i] < other.ends[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    replaceWith(result);
+  }
+
+  /**
+   * Replaces this list with the minutes it covers that {@code other} doesn't. Normalizes both
+   * lists.
+   */
+  public void subtract(TimeRangeList other) {
+    normalize();
+    other.normalize();
+
+    // Removing the middle of a range splits it in two, so the result is built separately.
+    TimeRangeList result = new TimeRangeList(size + other.size);
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      int start = starts[i];
+      int end = ends[i];
+
+      // Skip the ranges of the other list that end before this one starts.
+      while (j < other.size && other.ends[j] <= start) {
+        j++;
+      }
+      for (int k = j; k < other.size && other.starts[k] < end; k++) {
+        if (other.starts[k] > start) {
+          result.add(start, other.starts[k]);
+        }
+        start = Math.max(start, other.ends[k]);
+      }
+      if (start < end) {
+        result.add(start, end);
+      }
+    }
+    replaceWith(result);
+  }
+
+  /** Removes the ranges that are shorter than {@code minLength} minutes, keeping the order. */
+  public void removeShorterThan(long minLength) {
+    int kept = 0;
+    for (int i = 0; i < size; i++) {
+      if (ends[i] - starts[i] >= minLength) {
+        starts[kept] = starts[i];
+        ends[kept] = ends[i];
+        kept++;
+      }
+    }
+    size = kept;
+  }
+
+  /**
+   * Writes the ranges as a JSON array of {@code {"start": ..., "duration": ...}} objects, which is
+   * what Gson produces for a list of {@link TimeRange}.
+   */
+  public void writeJson(JsonWriter writer) throws IOException {
+    writer.beginArray();
+    for (int i = 0; i < size; i++) {
+      writer.beginObject();
+      writer.name("start").value(starts[i]);
+      writer.name("duration").value(ends[i] - starts[i]);
+      writer.endObject();
+    }
+    writer.endArray();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof TimeRangeList && equals(this, (TimeRangeList) other);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * (31 * hash + starts[i]) + ends[i];
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return toList().toString();
+  }
+
+  private static boolean equals(TimeRangeList a, TimeRangeList b) {
+    if (a.size != b.size) {
+      return false;
+    }
+    for (int i = 0; i < a.size; i++) {
+      if (a.starts[i] != b.starts[i] || a.ends[i] != b.ends[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isSorted() {
+    for (int i = 1; i < size; i++) {
+      if (starts[i] < starts[i - 1] || (starts[i] == starts[i - 1] && ends[i] < ends[i - 1])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void replaceWith(TimeRangeList other) {
+    starts = other.starts;
+    ends = other.ends;
+    size = other.size;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  private void siftDown(int root, int length) {
+    while (true) {
+      int child = root * 2 + 1;
+      if (child >= length) {
+        return;
+      }
+      if (child + 1 < length && compare(child + 1, child) > 0) {
+        child++;
+      }
+      if (compare(root, child) >= 0) {
+        return;
+      }
+      swap(root, child);
+      root = child;
+    }
+  }
+
+  private int compare(int a, int b) {
+    int byStart = Integer.compare(starts[a], starts[b]);
+    return byStart != 0 ? byStart : Integer.compare(ends[a], ends[b]);
+  }
+
+  private void swap(int a, int b) {
+    int start = starts[a];
+    starts[a] = starts[b];
+    starts[b] = start;
+    int end = ends[a];
+    ends[a] = ends[b];
+    ends[b] = end;
+  }
+}
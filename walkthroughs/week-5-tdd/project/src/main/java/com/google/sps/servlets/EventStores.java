@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.EventStore;
+import com.google.sps.Events;
+import com.google.sps.FileEventStore;
+import com.google.sps.InMemoryEventStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import javax.servlet.ServletContext;
+
+/**
+ * Gives every servlet in the app the same {@link EventStore}. If the {@code calendarFile} context
+ * parameter is set, the calendar is kept in that file; otherwise it starts out as the sample events
+ * in {@link Events} and only lives in memory.
+ */
+public final class EventStores {
+  private static final String ATTRIBUTE = EventStore.class.getName();
+
+  /** Name of the context parameter holding the path of the calendar file. */
+  public static final String CALENDAR_FILE_PARAMETER = "calendarFile";
+
+  private EventStores() {}
+
+  /** Returns the store shared by the servlets in {@code context}, creating it on first use. */
+  public static EventStore get(ServletContext context) {
+    synchronized (context) {
+      EventStore store = (EventStore) context.getAttribute(ATTRIBUTE);
+      if (store == null) {
+        store = create(context.getInitParameter(CALENDAR_FILE_PARAMETER));
+        context.setAttribute(ATTRIBUTE, store);
+      }
+      return store;
+    }
+  }
+
+  private static EventStore create(String calendarFile) {
+    if (calendarFile == null || calendarFile.isEmpty()) {
+      return new InMemoryEventStore(Arrays.asList(Events.events));
+    }
+    try {
+      return new FileEventStore(Paths.get(calendarFile));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not load the calendar from " + calendarFile, e);
+    }
+  }
+}
@@ -14,23 +14,142 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
-import com.google.gson.Gson;
+import com.google.sps.CalendarJson;
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.Event;
+import com.google.sps.EventStore;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Returns the events on the calendar as JSON. The optional {@code start} and {@code end}
+ * parameters (in minutes) limit the response to events that overlap {@code [start, end)}, and
+ * {@code offset} and {@code limit} select a page of the matching events. Without any of those
+ * parameters the whole calendar is sent from a copy that is only re-serialized when the calendar
+ * changes.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  private EventStore eventStore;
+
+  // The JSON of the whole calendar, along with the version of the snapshot it was made from.
+  private volatile CachedCalendar cachedCalendar;
+
+  @Override
+  public void init() {
+    eventStore = EventStores.get(getServletContext());
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    int start;
+    int end;
+    int offset;
+    int limit;
+    try {
+      start = getIntParameter(request, "start", Integer.MIN_VALUE);
+      end = getIntParameter(request, "end", Integer.MAX_VALUE);
+      offset = getIntParameter(request, "offset", 0);
+      limit = getIntParameter(request, "limit", Integer.MAX_VALUE);
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+    if (offset < 0 || limit < 0) {
+      response.sendError(
+          HttpServletResponse.SC_BAD_REQUEST, "offset and limit cannot be negative");
+      return;
+    }
 
-    // Send the JSON back as the response
+    if (start == Integer.MIN_VALUE
+        && end == Integer.MAX_VALUE
+        && offset == 0
+        && limit == Integer.MAX_VALUE) {
+      wholeCalendar().send(request, response);
+      return;
+    }
+
+    // Stream the events straight to the response instead of building the whole JSON string.
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter writer = CalendarJson.GSON.newJsonWriter(response.getWriter());
+    writer.beginArray();
+
+    List<Event> events = eventStore.snapshot().getEvents();
+    int skipped = 0;
+    int written = 0;
+    for (Event event : events) {
+      if (written == limit) {
+        break;
+      }
+      int eventStart = event.getWhen().start();
+      if (eventStart >= end || (long) eventStart + event.getWhen().duration() <= start) {
+        continue;
+      }
+      if (skipped < offset) {
+        skipped++;
+        continue;
+      }
+      CalendarJson.EVENT.write(writer, event);
+      written++;
+    }
+
+    writer.endArray();
+    writer.flush();
+  }
+
+  /** Returns the JSON of the current calendar, serializing it again only if it has changed. */
+  private PrecomputedResponse wholeCalendar() throws IOException {
+    CalendarSnapshot snapshot = eventStore.snapshot();
+    CachedCalendar cached = cachedCalendar;
+    if (cached == null || cached.version != snapshot.getVersion()) {
+      // Two requests can race to rebuild the same version, which only wastes a little work.
+      cached = new CachedCalendar(snapshot.getVersion(), serialize(snapshot.getEvents()));
+      cachedCalendar = cached;
+    }
+    return cached.response;
+  }
+
+  private static PrecomputedResponse serialize(List<Event> events) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    JsonWriter writer =
+        CalendarJson.GSON.newJsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8));
+    CalendarJson.writeEvents(writer, events);
+    writer.close();
+    return PrecomputedResponse.of("application/json;charset=UTF-8", bytes.toByteArray());
+  }
+
+  private static final class CachedCalendar {
+    final long version;
+    final PrecomputedResponse response;
+
+    CachedCalendar(long version, PrecomputedResponse response) {
+      this.version = version;
+      this.response = response;
+    }
+  }
+
+  /**
+   * Returns the value of the {@code name} parameter as an int, or {@code defaultValue} if it is
+   * missing.
+   */
+  private static int getIntParameter(HttpServletRequest request, String name, int defaultValue) {
+    String value = request.getParameter(name);
+    if (value == null || value.isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new NumberFormatException(name + " must be a whole number: " + value);
+    }
   }
 }
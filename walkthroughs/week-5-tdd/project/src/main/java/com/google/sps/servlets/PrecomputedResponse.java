@@ -0,0 +1,170 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A response body that is built once and then served as-is, for data that doesn't change between
+ * requests. A gzip copy is kept as well and is sent to clients that accept it. Each copy has a
+ * strong ETag, so a client that already has the data gets an empty 304 response.
+ */
+final class PrecomputedResponse {
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final String contentType;
+  private final byte[] body;
+  private final String etag;
+  private final byte[] gzipBody;
+  private final String gzipEtag;
+
+  private PrecomputedResponse(String contentType, byte[] body) {
+    this.contentType = contentType;
+    this.body = body;
+    String hash = sha256Prefix(body);
+    this.etag = "\"" + hash + "\"";
+
+    // Small bodies can come out larger once compressed, in which case they're always sent as-is.
+    byte[] compressed = gzip(body);
+    this.gzipBody = compressed.length < body.length ? compressed : null;
+    // Different encodings of the same data are different representations, so they need different
+    // strong ETags.
+    this.gzipEtag = "\"" + hash + "-gzip\"";
+  }
+
+  /** Builds a response that always sends {@code body} with the given content type. */
+  static PrecomputedResponse of(String contentType, byte[] body) {
+    return new PrecomputedResponse(contentType, body);
+  }
+
+  /**
+   * Sends the body, compressed if the client accepts gzip, or a 304 if the client's
+   * {@code If-None-Match} header shows it already has it.
+   */
+  void send(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    boolean useGzip = gzipBody != null && acceptsGzip(request.getHeader("Accept-Encoding"));
+    String currentEtag = useGzip ? gzipEtag : etag;
+
+    response.setHeader("Vary", "Accept-Encoding");
+    response.setHeader("Cache-Control", "no-cache");
+    response.setHeader("ETag", currentEtag);
+
+    if (matches(request.getHeader("If-None-Match"), currentEtag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    byte[] content = useGzip ? gzipBody : body;
+    response.setContentType(contentType);
+    if (useGzip) {
+      response.setHeader("Content-Encoding", "gzip");
+    }
+    response.setContentLength(content.length);
+    response.getOutputStream().write(content);
+  }
+
+  /** Returns {@code true} if {@code ifNoneMatch} lists {@code etag} or is {@code *}. */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      // If-None-Match uses weak comparison, so a W/ prefix doesn't matter.
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns {@code true} if {@code acceptEncoding} allows gzip. The whole header is read, since a
+   * {@code gzip} entry overrides {@code *} wherever it appears, and any coding with {@code q=0} is
+   * refused.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    // -1 until the header mentions the coding.
+    double gzipQuality = -1;
+    double anyQuality = -1;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      String name = parts[0].trim();
+      if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+        gzipQuality = Math.max(gzipQuality, quality(parts));
+      } else if (name.equals("*")) {
+        anyQuality = Math.max(anyQuality, quality(parts));
+      }
+    }
+    return gzipQuality >= 0 ? gzipQuality > 0 : anyQuality > 0;
+  }
+
+  /** Returns the q-value among the parameters of one coding: 1 if absent, 0 if malformed. */
+  private static double quality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+        try {
+          double quality = Double.parseDouble(parameter.substring(2).trim());
+          return quality >= 0 && quality <= 1 ? quality : 0;
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  private static byte[] gzip(byte[] data) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(data);
+    } catch (IOException e) {
+      // Writing to memory can't fail.
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /** Returns the first 128 bits of the SHA-256 hash of {@code data} in hex. */
+  private static String sha256Prefix(byte[] data) {
+    byte[] hash;
+    try {
+      hash = MessageDigest.getInstance("SHA-256").digest(data);
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+    char[] hex = new char[32];
+    for (int i = 0; i < 16; i++) {
+      hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+      hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+    }
+    return new String(hex);
+  }
+}
@@ -14,14 +14,14 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.CalendarJson;
+import com.google.sps.EventStore;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.sps.TimeRangeList;
+import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collection;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,23 +29,32 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
+  private EventStore eventStore;
+
   @Override
-  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+  public void init() {
+    eventStore = EventStores.get(getServletContext());
+  }
 
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    MeetingRequest meetingRequest =
+        CalendarJson.GSON.fromJson(request.getReader(), MeetingRequest.class);
 
-    // Find the possible meeting times.
+    // Find the possible meeting times against a consistent version of the calendar, which changes
+    // made while the query runs can't affect. The times are collected as plain ints rather than
+    // TimeRange objects, since they are only needed to write the response.
     FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
-
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+    TimeRangeList answer = new TimeRangeList();
+    findMeetingQuery.query(
+        eventStore.snapshot().getEvents(), meetingRequest, TimeRange.WHOLE_DAY, answer);
 
-    // Send the JSON back as the response
+    // Write the times straight to the response as JSON
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    JsonWriter writer = CalendarJson.GSON.newJsonWriter(response.getWriter());
+    answer.writeJson(writer);
+    writer.flush();
   }
 }
@@ -0,0 +1,125 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeSetTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void registryReturnsSameIdForSameName() {
+    AttendeeRegistry registry = new AttendeeRegistry();
+    int a = registry.intern(PERSON_A);
+    int b = registry.intern(PERSON_B);
+
+    Assert.assertEquals(a, registry.intern(PERSON_A));
+    Assert.assertNotEquals(a, b);
+    Assert.assertEquals(PERSON_B, registry.getName(b));
+    Assert.assertEquals(2, registry.size());
+  }
+
+  @Test
+  public void setDropsDuplicates() {
+    AttendeeRegistry registry = new AttendeeRegistry();
+    AttendeeSet set = AttendeeSet.of(Arrays.asList(PERSON_B, PERSON_A, PERSON_B), registry);
+
+    Assert.assertEquals(2, set.size());
+    Assert.assertTrue(set.contains(registry.intern(PERSON_A)));
+    Assert.assertTrue(set.contains(registry.intern(PERSON_B)));
+    Assert.assertFalse(set.contains(registry.intern(PERSON_C)));
+  }
+
+  @Test
+  public void intersects() {
+    AttendeeRegistry registry = new AttendeeRegistry();
+    AttendeeSet ab = AttendeeSet.of(Arrays.asList(PERSON_A, PERSON_B), registry);
+    AttendeeSet bc = AttendeeSet.of(Arrays.asList(PERSON_B, PERSON_C), registry);
+    AttendeeSet c = AttendeeSet.of(Arrays.asList(PERSON_C), registry);
+
+    Assert.assertTrue(ab.intersects(bc));
+    Assert.assertTrue(bc.intersects(ab));
+    Assert.assertFalse(ab.intersects(c));
+    Assert.assertFalse(ab.intersects(AttendeeSet.EMPTY));
+  }
+
+  @Test
+  public void emptySet() {
+    AttendeeSet set = AttendeeSet.of(Collections.emptySet(), new AttendeeRegistry());
+
+    Assert.assertTrue(set.isEmpty());
+    Assert.assertEquals(AttendeeSet.EMPTY, set);
+  }
+
+  @Test
+  public void lookupLeavesOutUnknownNamesWithoutAddingThem() {
+    AttendeeRegistry registry = new AttendeeRegistry();
+    int a = registry.intern(PERSON_A);
+
+    AttendeeSet set = AttendeeSet.lookup(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), registry);
+
+    Assert.assertEquals(1, set.size());
+    Assert.assertTrue(set.contains(a));
+    Assert.assertEquals(AttendeeRegistry.UNKNOWN, registry.lookup(PERSON_B));
+    Assert.assertEquals(1, registry.size());
+    Assert.assertEquals(
+        AttendeeSet.EMPTY, AttendeeSet.lookup(Arrays.asList(PERSON_C), registry));
+  }
+
+  @Test
+  public void requestDoesNotRegisterItsAttendees() {
+    String stranger = "Not on any calendar " + System.nanoTime();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(stranger), 30);
+    request.addOptionalAttendee(stranger + " too");
+    int registered = AttendeeRegistry.global().size();
+
+    Assert.assertTrue(request.getAttendeeIds().isEmpty());
+    Assert.assertTrue(request.getOptionalAttendeeIds().isEmpty());
+    Assert.assertEquals(AttendeeRegistry.UNKNOWN, AttendeeRegistry.global().lookup(stranger));
+    Assert.assertEquals(registered, AttendeeRegistry.global().size());
+  }
+
+  @Test
+  public void requestSeesAttendeesOfLaterEvents() {
+    String newcomer = "Newcomer " + System.nanoTime();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(newcomer), 30);
+    Assert.assertTrue(request.getAttendeeIds().isEmpty());
+
+    Event event =
+        new Event("Welcome", TimeRange.fromStartDuration(600, 30), Arrays.asList(newcomer));
+
+    Assert.assertEquals(event.getAttendeeIds(), request.getAttendeeIds());
+  }
+
+  @Test
+  public void optionalAttendeeIdsTrackAddedAttendees() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    Assert.assertTrue(request.getOptionalAttendeeIds().isEmpty());
+
+    request.addOptionalAttendee(PERSON_B);
+
+    int personB = AttendeeRegistry.global().intern(PERSON_B);
+    Assert.assertTrue(request.getOptionalAttendeeIds().contains(personB));
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Checks that batch queries give the same answers as asking one request at a time. */
+@RunWith(JUnit4.class)
+public final class BatchQueryTest {
+  private static final List<String> PEOPLE =
+      Arrays.asList("Person A", "Person B", "Person C", "Person D", "Person E", "Person F");
+
+  @Test
+  public void emptyBatch() {
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    Assert.assertEquals(
+        new ArrayList<>(), query.queryAll(Arrays.asList(Events.events), new ArrayList<>()));
+  }
+
+  @Test
+  public void batchMatchesSingleQueries() {
+    Random random = new Random(0);
+    Collection<Event> events = Arrays.asList(Events.events);
+    List<MeetingRequest> requests = randomRequests(random, 100);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    List<Collection<TimeRange>> actual = query.queryAll(events, requests);
+
+    Assert.assertEquals(requests.size(), actual.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals(query.query(events, requests.get(i)), actual.get(i));
+    }
+  }
+
+  @Test
+  public void parallelBatchMatchesSequentialBatch() {
+    Random random = new Random(1);
+    Collection<Event> events = randomEvents(random, 500);
+    List<MeetingRequest> requests = randomRequests(random, 300);
+    FindMeetingQuery query = new FindMeetingQuery();
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    try {
+      Assert.assertEquals(query.queryAll(events, requests), query.queryAll(events, requests, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static Collection<Event> randomEvents(Random random, int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - 60);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, 15 + random.nextInt(45)),
+          Arrays.asList(PEOPLE.get(random.nextInt(PEOPLE.size())))));
+    }
+    return events;
+  }
+
+  private static List<MeetingRequest> randomRequests(Random random, int count) {
+    List<String> names = new ArrayList<>(PEOPLE);
+    for (Event event : Events.events) {
+      names.addAll(event.getAttendees());
+    }
+
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(names.get(random.nextInt(names.size()))), 15 + random.nextInt(120));
+      request.addOptionalAttendee(names.get(random.nextInt(names.size())));
+      requests.add(request);
+    }
+    return requests;
+  }
+}
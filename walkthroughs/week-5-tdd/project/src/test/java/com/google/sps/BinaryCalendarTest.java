@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BinaryCalendarTest {
+  private static final List<Event> EVENTS = Arrays.asList(Events.events);
+
+  @Test
+  public void roundTripsThroughFile() throws IOException {
+    Path file = Files.createTempFile("calendar", ".bin");
+    BinaryCalendar.write(EVENTS, file);
+
+    BinaryCalendar calendar = BinaryCalendar.open(file);
+
+    Assert.assertEquals(EVENTS, calendar.asList());
+  }
+
+  @Test
+  public void columnsMatchEvents() {
+    BinaryCalendar calendar = BinaryCalendar.wrap(BinaryCalendar.encode(EVENTS));
+
+    Assert.assertEquals(EVENTS.size(), calendar.size());
+    for (int i = 0; i < calendar.size(); i++) {
+      Event event = EVENTS.get(i);
+      Assert.assertEquals(event.getTitle(), calendar.title(i));
+      Assert.assertEquals(event.getWhen().start(), calendar.start(i));
+      Assert.assertEquals(event.getWhen().duration(), calendar.duration(i));
+      Assert.assertEquals(event.getAttendees().size(), calendar.attendeeCount(i));
+    }
+  }
+
+  @Test
+  public void indexOfFindsEveryString() {
+    BinaryCalendar calendar = BinaryCalendar.wrap(BinaryCalendar.encode(EVENTS));
+
+    for (int i = 0; i < calendar.stringCount(); i++) {
+      Assert.assertEquals(i, calendar.indexOf(calendar.string(i)));
+    }
+    Assert.assertEquals(-1, calendar.indexOf("Nobody"));
+  }
+
+  @Test
+  public void nonAsciiNames() {
+    List<Event> events = Arrays.asList(new Event("R\u00e9union",
+        TimeRange.fromStartDuration(60, 30), Arrays.asList("Zo\u00eb", "\u00d8degaard", "\u674e")));
+    BinaryCalendar calendar = BinaryCalendar.wrap(BinaryCalendar.encode(events));
+
+    Assert.assertEquals(events, calendar.asList());
+    Assert.assertTrue(calendar.indexOf("\u674e") >= 0);
+  }
+
+  @Test
+  public void queryMatchesEventList() {
+    BinaryCalendar calendar = BinaryCalendar.wrap(BinaryCalendar.encode(EVENTS));
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (Event event : EVENTS) {
+      for (long duration : new long[] {15, 30, 60, 120}) {
+        MeetingRequest request = new MeetingRequest(event.getAttendees(), duration);
+        request.addOptionalAttendee("Amelia");
+        request.addOptionalAttendee("Nobody");
+
+        TimeRangeList actual = new TimeRangeList();
+        query.query(calendar, request, TimeRange.WHOLE_DAY, actual);
+        Collection<TimeRange> expected = query.query(EVENTS, request);
+
+        Assert.assertEquals(expected, actual.toList());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsOtherFiles() {
+    BinaryCalendar.wrap(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+  }
+}
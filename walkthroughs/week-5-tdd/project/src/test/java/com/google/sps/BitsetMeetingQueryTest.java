@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Runs the {@link FindMeetingQueryTest} suite against the bitset engine. */
+@RunWith(JUnit4.class)
+public final class BitsetMeetingQueryTest extends FindMeetingQueryTest {
+  private static final int DAY = TimeRange.MINUTES_PER_DAY;
+
+  @Override
+  protected FindMeetingQuery createQuery() {
+    return new FindMeetingQuery(FindMeetingQuery.Engine.BITSET);
+  }
+
+  @Test
+  public void setRangeAcrossWordBoundaries() {
+    long[] busy = new long[BitsetMeetingQuery.WORDS_PER_DAY];
+    BitsetMeetingQuery.setRange(busy, 60, 200, DAY);
+
+    Assert.assertEquals(60, BitsetMeetingQuery.nextBusyMinute(busy, 0, DAY));
+    Assert.assertEquals(200, BitsetMeetingQuery.nextFreeMinute(busy, 60, DAY));
+    Assert.assertEquals(DAY, BitsetMeetingQuery.nextBusyMinute(busy, 200, DAY));
+  }
+
+  @Test
+  public void setRangeIgnoresMinutesOutsideOfTheDay() {
+    long[] busy = new long[BitsetMeetingQuery.WORDS_PER_DAY];
+    BitsetMeetingQuery.setRange(busy, 1400, 2000, DAY);
+
+    Assert.assertEquals(1400, BitsetMeetingQuery.nextBusyMinute(busy, 0, DAY));
+    Assert.assertEquals(DAY, BitsetMeetingQuery.nextFreeMinute(busy, 1400, DAY));
+  }
+}
@@ -0,0 +1,95 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Runs the {@link FindMeetingQueryTest} suite against the indexed engine. */
+@RunWith(JUnit4.class)
+public final class BusyIntervalIndexTest extends FindMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  @Override
+  protected FindMeetingQuery createQuery() {
+    return new FindMeetingQuery(FindMeetingQuery.Engine.INDEXED);
+  }
+
+  @Test
+  public void mergesOverlappingEventsPerAttendee() {
+    BusyIntervalIndex index = new BusyIntervalIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A, PERSON_B))));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false)),
+        index.getBusyTimes(PERSON_A));
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false)),
+        index.getBusyTimes(PERSON_B));
+  }
+
+  @Test
+  public void addMergesIntoExistingBusyTimes() {
+    BusyIntervalIndex index = new BusyIntervalIndex();
+    index.add(new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+        Arrays.asList(PERSON_A)));
+    index.add(new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A)));
+    index.add(new Event("Event 3", TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A)));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false)),
+        index.getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void removeRestoresFreeTime() {
+    Event shared = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Event other = new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A));
+    BusyIntervalIndex index = new BusyIntervalIndex(Arrays.asList(shared, other));
+
+    Assert.assertTrue(index.remove(shared));
+    Assert.assertFalse(index.remove(shared));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false)),
+        index.getBusyTimes(PERSON_A));
+    Assert.assertEquals(Collections.emptyList(), index.getBusyTimes(PERSON_B));
+  }
+
+  @Test
+  public void queryOnlyReadsInvitedAttendees() {
+    BusyIntervalIndex index = new BusyIntervalIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+
+    Collection<TimeRange> actual = new FindMeetingQuery().query(index, request);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), actual);
+  }
+}
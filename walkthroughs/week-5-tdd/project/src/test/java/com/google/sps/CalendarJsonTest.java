@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarJsonTest {
+  @Test
+  public void eventsMatchReflectiveGson() {
+    Assert.assertEquals(new Gson().toJson(Events.events), CalendarJson.GSON.toJson(Events.events));
+  }
+
+  @Test
+  public void eventsRoundTrip() {
+    String json = CalendarJson.GSON.toJson(Events.events);
+
+    Event[] actual = CalendarJson.GSON.fromJson(json, Event[].class);
+
+    Assert.assertEquals(Arrays.asList(Events.events), Arrays.asList(actual));
+  }
+
+  @Test
+  public void unknownFieldsAreSkipped() {
+    String json = "{\"title\":\"Event 1\",\"room\":{\"name\":\"A\"},"
+        + "\"when\":{\"start\":60,\"duration\":30,\"zone\":\"UTC\"},\"attendees\":[\"Person A\"]}";
+
+    Event actual = CalendarJson.GSON.fromJson(json, Event.class);
+
+    Assert.assertEquals(new Event("Event 1", TimeRange.fromStartDuration(60, 30),
+        Arrays.asList("Person A")), actual);
+  }
+
+  @Test
+  public void timeRangeMatchesReflectiveGson() {
+    TimeRange range = TimeRange.fromStartDuration(90, 45);
+
+    Assert.assertEquals(new Gson().toJson(range), CalendarJson.GSON.toJson(range));
+    Assert.assertEquals(range, CalendarJson.GSON.fromJson("{\"start\":90,\"duration\":45}",
+        TimeRange.class));
+  }
+
+  @Test
+  public void meetingRequestMatchesReflectiveGson() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A", "Person B"), 30);
+    request.addOptionalAttendee("Person C");
+
+    Assert.assertEquals(new Gson().toJson(request), CalendarJson.GSON.toJson(request));
+  }
+
+  @Test
+  public void meetingRequestFromBrowser() {
+    String json = "{\"duration\":30,\"attendees\":[\"Person A\"],"
+        + "\"optional_attendees\":[\"Person A\",\"Person B\"]}";
+
+    MeetingRequest actual = CalendarJson.GSON.fromJson(json, MeetingRequest.class);
+
+    Assert.assertEquals(30, actual.getDuration());
+    Assert.assertEquals(Arrays.asList("Person A"), new ArrayList<>(actual.getAttendees()));
+    Assert.assertEquals(Arrays.asList("Person B"), new ArrayList<>(actual.getOptionalAttendees()));
+  }
+}
@@ -0,0 +1,89 @@
+
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventStoreTest {
+  private static final Event EVENT_1 = new Event("Event 1",
+      TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(8, 0), 30), Arrays.asList("Person A"));
+  private static final Event EVENT_2 = new Event("Event 2",
+      TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(9, 0), 60), Arrays.asList("Person B"));
+
+  @Test
+  public void snapshotDoesNotSeeLaterChanges() {
+    EventStore store = new InMemoryEventStore(Arrays.asList(EVENT_1));
+    CalendarSnapshot before = store.snapshot();
+
+    store.add(EVENT_2);
+    store.remove(EVENT_1);
+
+    Assert.assertEquals(Arrays.asList(EVENT_1), before.getEvents());
+    Assert.assertEquals(Arrays.asList(EVENT_2), store.snapshot().getEvents());
+    Assert.assertEquals(before.getVersion() + 2, store.snapshot().getVersion());
+  }
+
+  @Test
+  public void removeMissingEventKeepsVersion() {
+    EventStore store = new InMemoryEventStore();
+    CalendarSnapshot before = store.snapshot();
+
+    Assert.assertFalse(store.remove(EVENT_1));
+    Assert.assertSame(before, store.snapshot());
+  }
+
+  @Test
+  public void concurrentWritersAreNotLost() throws InterruptedException {
+    EventStore store = new InMemoryEventStore();
+    List<Thread> writers = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      int writer = i;
+      writers.add(new Thread(() -> {
+        for (int j = 0; j < 250; j++) {
+          store.add(new Event("Event " + writer + "-" + j, TimeRange.fromStartDuration(j, 1),
+              Arrays.asList("Person A")));
+        }
+      }));
+    }
+    for (Thread thread : writers) {
+      thread.start();
+    }
+    for (Thread thread : writers) {
+      thread.join();
+    }
+
+    Assert.assertEquals(1000, store.snapshot().getEvents().size());
+    Assert.assertEquals(1000, store.snapshot().getVersion());
+  }
+
+  @Test
+  public void fileStoreKeepsChanges() throws IOException {
+    Path file = Files.createTempDirectory("calendar").resolve("calendar.json");
+    FileEventStore store = new FileEventStore(file);
+    store.add(EVENT_1);
+    store.add(EVENT_2);
+    store.remove(EVENT_1);
+
+    FileEventStore reopened = new FileEventStore(file);
+
+    Assert.assertEquals(Arrays.asList(EVENT_2), reopened.snapshot().getEvents());
+  }
+
+  @Test
+  public void fileStoreStartsEmptyWithoutFile() throws IOException {
+    Path file = Files.createTempDirectory("calendar").resolve("missing.json");
+
+    Assert.assertTrue(new FileEventStore(file).snapshot().getEvents().isEmpty());
+  }
+}
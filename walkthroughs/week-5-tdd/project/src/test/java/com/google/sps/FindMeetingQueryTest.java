@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -27,7 +28,7 @@ import org.junit.runners.JUnit4;
 
 /** */
 @RunWith(JUnit4.class)
-public final class FindMeetingQueryTest {
+public class FindMeetingQueryTest {
   private static final Collection<Event> NO_EVENTS = Collections.emptySet();
   private static final Collection<String> NO_ATTENDEES = Collections.emptySet();
 
@@ -57,7 +58,12 @@ public final class FindMeetingQueryTest {
 
   @Before
   public void setUp() {
-    query = new FindMeetingQuery();
+    query = createQuery();
+  }
+
+  /** Returns the query under test. Subclasses override this to run the suite on other engines. */
+  protected FindMeetingQuery createQuery() {
+    return new FindMeetingQuery();
   }
 
   @Test
@@ -417,6 +423,159 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);  
   }
 
-  
-}
+  @Test
+  public void sharedEventBlocksRequestedAttendee() {
+    // Person A shares an event with someone who is not part of the request. Person A is still
+    // busy during that event.
+    //
+    // Events  :       |--A,B--|
+    // Day     : |---------------------|
+    // Options : |--1--|       |---2---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void gapAfterNestedEvent() {
+    // A short event nested inside a long one must not hide the gap that follows the long event.
+    //
+    // Events  : |------A------|
+    //             |--B--|          |--A--|
+    // Day     : |------------------------------|
+    // Options :               |----|     |-----|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_1100AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            TimeRange.fromStartEnd(TIME_1130AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void requiredAttendeeSharesEventWithOptionalAttendee() {
+    // Person A (required) and person B (optional) share an event, and person B is busy the rest
+    // of the day. Dropping person B must not free up person A's shared event.
+    //
+    // Events  :       |--A,B--|
+    //           |---------B-----------|
+    // Day     : |---------------------|
+    // Options : |--1--|       |---2---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
 
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void multiDayWindow() {
+    // Search three days at once. Person A is busy overnight from the evening of the first day to
+    // the morning of the second, and all of the third day.
+    //
+    // Events  :        |--A--|        |---A---|
+    // Days    : |---1----|---2----|---3----|
+    // Options : |--1---|     |--2---|
+
+    LocalDate firstDay = LocalDate.of(2020, 1, 1);
+    TimeRange window = TimeRange.fromDays(firstDay, 3);
+    int overnightStart = TimeRange.getEpochMinute(firstDay, 20, 0);
+    int overnightEnd = TimeRange.getEpochMinute(firstDay.plusDays(1), 8, 0);
+    int thirdDay = TimeRange.getEpochMinute(firstDay.plusDays(2), 0, 0);
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(overnightStart, overnightEnd, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(thirdDay, window.end(), false),
+            Arrays.asList(PERSON_A)),
+        // Outside of the window, so it can't affect the result.
+        new Event("Event 3", TimeRange.fromDays(firstDay.minusDays(1), 1),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_2_HOUR);
+
+    Collection<TimeRange> actual = query.query(events, request, window);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(window.start(), overnightStart, false),
+            TimeRange.fromStartEnd(overnightEnd, thirdDay, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void gapsCanCrossMidnight() {
+    // A meeting that is longer than any free time in a single day still fits overnight.
+    LocalDate firstDay = LocalDate.of(2020, 1, 1);
+    TimeRange window = TimeRange.fromDays(firstDay, 2);
+    int firstDayBusyUntil = TimeRange.getEpochMinute(firstDay, 1, 0);
+    int secondDayBusyFrom = TimeRange.getEpochMinute(firstDay.plusDays(1), 23, 0);
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(window.start(), firstDayBusyUntil, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(secondDayBusyFrom, window.end(), false),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(
+        Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY.duration() + DURATION_1_HOUR);
+
+    Collection<TimeRange> actual = query.query(events, request, window);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(firstDayBusyUntil, secondDayBusyFrom, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void consumerReceivesSameTimesAsQuery() {
+    // Falls back to the required attendee, so both views of the calendar are needed.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<TimeRange> actual = new ArrayList<>();
+    int count = query.query(events, request, TimeRange.WHOLE_DAY,
+        (start, end) -> actual.add(TimeRange.fromStartEnd(start, end, false)));
+
+    Assert.assertEquals(query.query(events, request), actual);
+    Assert.assertEquals(3, count);
+  }
+}
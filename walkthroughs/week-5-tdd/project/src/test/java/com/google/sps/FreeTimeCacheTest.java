@@ -0,0 +1,127 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FreeTimeCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_1_HOUR = 60;
+
+  @Test
+  public void matchesFindMeetingQuery() {
+    List<Event> events = Arrays.asList(Events.events);
+    FreeTimeCache cache = new FreeTimeCache(events, 10);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (Event event : events) {
+      for (long duration : new long[] {15, 30, 60, 120}) {
+        MeetingRequest request = new MeetingRequest(event.getAttendees(), duration);
+        request.addOptionalAttendee("Amelia");
+        Assert.assertEquals(query.query(events, request), cache.query(request));
+      }
+    }
+  }
+
+  @Test
+  public void repeatQueryWithAnyDurationIsAHit() {
+    FreeTimeCache cache = new FreeTimeCache(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false), Arrays.asList(PERSON_A))), 10);
+
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES));
+    Collection<TimeRange> actual =
+        cache.query(new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), DURATION_1_HOUR));
+
+    Assert.assertEquals(1, cache.getMissCount());
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true)),
+        actual);
+  }
+
+  @Test
+  public void eventChangeOnlyInvalidatesItsAttendees() {
+    FreeTimeCache cache = new FreeTimeCache(Arrays.<Event>asList(), 10);
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    cache.query(requestA);
+    cache.query(requestB);
+
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A, PERSON_C));
+    cache.addEvent(event);
+    Assert.assertEquals(1, cache.size());
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true)),
+        cache.query(requestA));
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), cache.query(requestB));
+    Assert.assertEquals(3, cache.getMissCount());
+    Assert.assertEquals(1, cache.getHitCount());
+
+    Assert.assertTrue(cache.removeEvent(event));
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), cache.query(requestA));
+  }
+
+  @Test
+  public void optionalAttendeeEventInvalidates() {
+    FreeTimeCache cache = new FreeTimeCache(Arrays.<Event>asList(), 10);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    cache.query(request);
+
+    cache.addEvent(new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_B)));
+
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    FreeTimeCache cache = new FreeTimeCache(Arrays.<Event>asList(), 2);
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), DURATION_30_MINUTES);
+
+    cache.query(requestA);
+    cache.query(requestB);
+    cache.query(requestA);
+    cache.query(requestC);
+
+    Assert.assertEquals(2, cache.size());
+    cache.query(requestA);
+    Assert.assertEquals(2, cache.getHitCount());
+    cache.query(requestB);
+    Assert.assertEquals(2, cache.getHitCount());
+  }
+}
@@ -0,0 +1,145 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class OptionalAttendeeSweepTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_1_HOUR = 60;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void everyoneFreeMatchesQuery() {
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<MeetingSlot> actual = query.queryMaximizingOptional(events, request);
+
+    Assert.assertEquals(3, actual.size());
+    int i = 0;
+    for (TimeRange expected : query.query(events, request)) {
+      Assert.assertEquals(new MeetingSlot(expected, Arrays.asList(PERSON_B)), actual.get(i++));
+    }
+  }
+
+  @Test
+  public void differentOptionalAttendeesAtDifferentTimes() {
+    // Optional  : |--B--------------|
+    //                               |--C--------------|
+    // Day       : |-----------------------------------|
+    // Options   : |--C--------------|--B--------------|
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1200PM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_C)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<MeetingSlot> actual = query.queryMaximizingOptional(events, request);
+    List<MeetingSlot> expected = Arrays.asList(
+        new MeetingSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1200PM, false),
+            Arrays.asList(PERSON_C)),
+        new MeetingSlot(TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_B)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void slotCanStraddleDifferentlyBusyTimes() {
+    // A meeting from 8:30 to 9:30 fits between B's and C's events, even though no single stretch
+    // of time with a fixed set of free people is an hour long.
+    //
+    // Required  : |--A--|               |--A--|
+    // Optional  :       |-B-|       |-C-|
+    // Day       : |-----------------------------------|
+    // Options   :           |-------|
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_C)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<MeetingSlot> actual = query.queryMaximizingOptional(events, request);
+    List<MeetingSlot> expected = Arrays.asList(new MeetingSlot(
+        TimeRange.fromStartEnd(TIME_0830AM, TIME_0930AM, false), Arrays.asList(PERSON_B, PERSON_C)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noOptionalAttendeeFreeFallsBackToRequired() {
+    List<Event> events = Arrays.asList(new Event("Event 1", TimeRange.WHOLE_DAY,
+        Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<MeetingSlot> actual = query.queryMaximizingOptional(events, request);
+    List<MeetingSlot> expected =
+        Arrays.asList(new MeetingSlot(TimeRange.WHOLE_DAY, Arrays.<String>asList()));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noOneFreeWithoutRequiredAttendees() {
+    List<Event> events = Arrays.asList(new Event("Event 1", TimeRange.WHOLE_DAY,
+        Arrays.asList(PERSON_B, PERSON_C)));
+    MeetingRequest request = new MeetingRequest(Arrays.<String>asList(), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Assert.assertTrue(query.queryMaximizingOptional(events, request).isEmpty());
+  }
+}
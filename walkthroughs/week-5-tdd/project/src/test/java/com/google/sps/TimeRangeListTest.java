@@ -0,0 +1,136 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class TimeRangeListTest {
+  private static TimeRangeList list(int... startsAndEnds) {
+    TimeRangeList list = new TimeRangeList();
+    for (int i = 0; i < startsAndEnds.length; i += 2) {
+      list.add(startsAndEnds[i], startsAndEnds[i + 1]);
+    }
+    return list;
+  }
+
+  @Test
+  public void addGrowsPastCapacity() {
+    TimeRangeList actual = new TimeRangeList(0);
+    for (int i = 0; i < 100; i++) {
+      actual.add(i, i + 1);
+    }
+
+    Assert.assertEquals(100, actual.size());
+    Assert.assertEquals(TimeRange.fromStartEnd(42, 43, false), actual.get(42));
+  }
+
+  @Test
+  public void sortByStartThenEnd() {
+    TimeRangeList actual = list(30, 40, 10, 50, 10, 20, 0, 5, 30, 35);
+    actual.sort();
+
+    Assert.assertEquals(list(0, 5, 10, 20, 10, 50, 30, 35, 30, 40), actual);
+  }
+
+  @Test
+  public void normalizeMergesOverlappingAndTouchingRanges() {
+    TimeRangeList actual = list(20, 30, 0, 10, 10, 15, 25, 40, 50, 50, 60, 70);
+    actual.normalize();
+
+    Assert.assertEquals(list(0, 15, 20, 40, 60, 70), actual);
+  }
+
+  @Test
+  public void union() {
+    TimeRangeList actual = list(0, 10, 50, 60);
+    actual.union(list(5, 20, 30, 40));
+
+    Assert.assertEquals(list(0, 20, 30, 40, 50, 60), actual);
+  }
+
+  @Test
+  public void unionWithItself() {
+    TimeRangeList actual = list(50, 60, 0, 10, 5, 20);
+    actual.union(actual);
+
+    Assert.assertEquals(list(0, 20, 50, 60), actual);
+  }
+
+  @Test
+  public void intersectCanSplitARange() {
+    TimeRangeList actual = list(0, 100);
+    actual.intersect(list(10, 20, 30, 40, 90, 120));
+
+    Assert.assertEquals(list(10, 20, 30, 40, 90, 100), actual);
+  }
+
+  @Test
+  public void intersectWithNothingInCommon() {
+    TimeRangeList actual = list(0, 10);
+    actual.intersect(list(10, 20));
+
+    Assert.assertTrue(actual.isEmpty());
+  }
+
+  @Test
+  public void subtractSplitsAndTrimsRanges() {
+    TimeRangeList actual = list(0, 100, 200, 300);
+    actual.subtract(list(10, 20, 30, 40, 90, 210, 300, 400));
+
+    Assert.assertEquals(list(0, 10, 20, 30, 40, 90, 210, 300), actual);
+  }
+
+  @Test
+  public void removeShorterThan() {
+    TimeRangeList actual = list(0, 10, 20, 50, 60, 65, 70, 100);
+    actual.removeShorterThan(30);
+
+    Assert.assertEquals(list(20, 50, 70, 100), actual);
+  }
+
+  @Test
+  public void collectsQueryResults() {
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(60, 120, false),
+        Arrays.asList("Person A"));
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A"), 30);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    TimeRangeList actual = new TimeRangeList();
+    query.query(Arrays.asList(event), request, TimeRange.WHOLE_DAY, actual);
+
+    Assert.assertEquals(query.query(Arrays.asList(event), request), actual.toList());
+  }
+
+  @Test
+  public void writeJsonMatchesGson() throws IOException {
+    TimeRangeList ranges = list(0, 30, 90, 1440);
+    StringWriter json = new StringWriter();
+    JsonWriter writer = new JsonWriter(json);
+    ranges.writeJson(writer);
+    writer.flush();
+
+    Assert.assertEquals(new Gson().toJson(ranges.toList()), json.toString());
+  }
+}
@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import java.time.LocalDate;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -184,4 +185,22 @@ public final class TimeRangeTest {
     Assert.assertTrue(emptyMiddle.overlaps(range));
     Assert.assertTrue(emptyEnd.overlaps(range));
   }
+
+  @Test
+  public void epochMinuteOfFirstDayMatchesTimeInMinutes() {
+    LocalDate epoch = LocalDate.of(1970, 1, 1);
+
+    Assert.assertEquals(
+        TimeRange.getTimeInMinutes(9, 30), TimeRange.getEpochMinute(epoch, 9, 30));
+  }
+
+  @Test
+  public void fromDaysCoversWholeDays() {
+    LocalDate day = LocalDate.of(2020, 6, 1);
+    TimeRange range = TimeRange.fromDays(day, 14);
+
+    Assert.assertEquals(TimeRange.getEpochMinute(day, 0, 0), range.start());
+    Assert.assertEquals(14 * TimeRange.MINUTES_PER_DAY, range.duration());
+    Assert.assertEquals(TimeRange.WHOLE_DAY, TimeRange.fromDays(LocalDate.of(1970, 1, 1), 1));
+  }
 }
@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PrecomputedResponseTest {
+  private static final String ETAG = "\"0123abcd\"";
+
+  @Test
+  public void acceptsGzip() {
+    Assert.assertTrue(PrecomputedResponse.acceptsGzip("gzip"));
+    Assert.assertTrue(PrecomputedResponse.acceptsGzip("deflate, GZIP;q=0.5, br"));
+    Assert.assertTrue(PrecomputedResponse.acceptsGzip("x-gzip"));
+    Assert.assertTrue(PrecomputedResponse.acceptsGzip("*"));
+  }
+
+  @Test
+  public void refusesMissingOrUnlistedGzip() {
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip(null));
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip(""));
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("deflate, br"));
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("identity"));
+  }
+
+  @Test
+  public void zeroQualityRefusesGzip() {
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("gzip;q=0"));
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("gzip; Q=0.000"));
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("*;q=0"));
+  }
+
+  @Test
+  public void explicitGzipOverridesWildcardInAnyOrder() {
+    Assert.assertTrue(PrecomputedResponse.acceptsGzip("*;q=0, gzip"));
+    Assert.assertTrue(PrecomputedResponse.acceptsGzip("gzip, *;q=0"));
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("*, gzip;q=0"));
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("gzip;q=0, *"));
+  }
+
+  @Test
+  public void malformedQualityRefusesCoding() {
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("gzip;q=high"));
+    Assert.assertFalse(PrecomputedResponse.acceptsGzip("gzip;q=2"));
+  }
+
+  @Test
+  public void ifNoneMatchMatchesListedOrWildcard() {
+    Assert.assertTrue(PrecomputedResponse.matches(ETAG, ETAG));
+    Assert.assertTrue(PrecomputedResponse.matches("\"other\", " + ETAG, ETAG));
+    Assert.assertTrue(PrecomputedResponse.matches("W/" + ETAG, ETAG));
+    Assert.assertTrue(PrecomputedResponse.matches("*", ETAG));
+  }
+
+  @Test
+  public void ifNoneMatchMissesOtherEtags() {
+    Assert.assertFalse(PrecomputedResponse.matches(null, ETAG));
+    Assert.assertFalse(PrecomputedResponse.matches("\"other\"", ETAG));
+    Assert.assertFalse(PrecomputedResponse.matches("\"0123abcd-gzip\"", ETAG));
+  }
+}